@@ -0,0 +1,136 @@
+package dev.gunn96.popcat.common;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 동시에 처리하는 요청 수 상한. 상한은 관측한 지연 시간에 따라 [minLimit, maxLimit] 안에서 조절된다.
+ * 창(window)마다 평균 지연을 가장 빠를 때의 지연(minRtt)과 비교해, 지연이 tolerance 배를 넘으면 줄이고
+ * 그 안이면 sqrt(limit) 만큼 여유를 더해 늘린다(Netflix concurrency-limits 의 gradient 방식).
+ * adaptive 가 false 면 maxLimit 으로 고정된다.
+ *
+ * 예약분(reserved)을 지정해 acquire 하면 상한에서 예약분을 뺀 만큼만 쓸 수 있다.
+ * 우선순위가 낮은 요청은 예약분을 두고, 높은 요청은 0 으로 acquire 하면 된다.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final int WINDOW_SAMPLES = 100;
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    // 이 횟수의 창마다 minRtt 를 다시 잰다. 부하 패턴이 바뀌어도 예전 최솟값에 묶이지 않게 한다
+    private static final int MIN_RTT_RESET_WINDOWS = 60;
+    private static final double SMOOTHING = 0.2;
+
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    // 창 상태. 창을 닫을 때만 잠근다
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowLatencyNanos = new LongAdder();
+    private volatile long windowStartNanos = System.nanoTime();
+    private long minRttNanos;
+    private int windowsSinceReset;
+
+    public AdaptiveConcurrencyLimiter(boolean adaptive, int minLimit, int maxLimit, int initialLimit, double tolerance) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.adaptive = adaptive;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = adaptive ? Math.min(Math.max(initialLimit, minLimit), maxLimit) : maxLimit;
+    }
+
+    /**
+     * 자리가 있으면 점유하고 true, 상한 - reserved 만큼 이미 처리 중이면 false 를 반환한다.
+     * true 를 받았으면 반드시 {@link #release(long)} 를 호출해야 한다.
+     */
+    public boolean tryAcquire(int reserved) {
+        int available = Math.max(getLimit() - reserved, 0);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= available) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long startNanos) {
+        int current = inFlight.getAndDecrement();
+        if (adaptive) {
+            record(System.nanoTime() - startNanos, current);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getMinRttNanos() {
+        windowLock.lock();
+        try {
+            return minRttNanos;
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    private void record(long latencyNanos, int inFlightAtRelease) {
+        windowSamples.increment();
+        windowLatencyNanos.add(latencyNanos);
+        long now = System.nanoTime();
+        if (windowSamples.sum() < WINDOW_SAMPLES && now - windowStartNanos < WINDOW_NANOS) {
+            return;
+        }
+        windowLock.lock();
+        try {
+            long samples = windowSamples.sumThenReset();
+            long totalLatency = windowLatencyNanos.sumThenReset();
+            windowStartNanos = now;
+            if (samples == 0) {
+                return;
+            }
+            updateLimit(totalLatency / samples, inFlightAtRelease);
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    private void updateLimit(long averageRttNanos, int inFlightAtRelease) {
+        if (++windowsSinceReset >= MIN_RTT_RESET_WINDOWS) {
+            windowsSinceReset = 0;
+            minRttNanos = 0;
+        }
+        if (minRttNanos == 0 || averageRttNanos < minRttNanos) {
+            minRttNanos = Math.max(averageRttNanos, 1);
+        }
+
+        double current = limit;
+        // 상한의 절반도 쓰지 않는 동안에는 지연이 상한 때문이 아니므로 늘리지 않는다
+        if (averageRttNanos <= minRttNanos * tolerance && inFlightAtRelease < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * minRttNanos / averageRttNanos));
+        double next = current * gradient + Math.sqrt(current);
+        next = current * (1 - SMOOTHING) + next * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,37 @@
+package dev.gunn96.popcat.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AdmissionControlConfig {
+
+    // max-concurrency 는 Tomcat 스레드 수보다 작게 잡아야 포화 시 스레드가 남는다
+    @Bean
+    public AdaptiveConcurrencyLimiter admissionLimiter(
+            @Value("${popcat.admission.adaptive:true}") boolean adaptive,
+            @Value("${popcat.admission.min-concurrency:8}") int minConcurrency,
+            @Value("${popcat.admission.max-concurrency:150}") int maxConcurrency,
+            @Value("${popcat.admission.initial-concurrency:50}") int initialConcurrency,
+            @Value("${popcat.admission.latency-tolerance:2.0}") double latencyTolerance) {
+        return new AdaptiveConcurrencyLimiter(adaptive, minConcurrency, maxConcurrency, initialConcurrency,
+                latencyTolerance);
+    }
+
+    // 인증보다 먼저 거르도록 Spring Security 필터 체인 앞에 둔다
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdaptiveConcurrencyLimiter admissionLimiter, ObjectMapper objectMapper,
+            @Value("${popcat.admission.enabled:false}") boolean enabled,
+            @Value("${popcat.admission.leaderboard-reserved-fraction:0.2}") double leaderboardReservedFraction) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(admissionLimiter, objectMapper, leaderboardReservedFraction));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
@@ -0,0 +1,70 @@
+package dev.gunn96.popcat.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 팝 적재 경로와 리더보드 경로의 동시 처리 수를 하나의 {@link AdaptiveConcurrencyLimiter} 로 제한한다.
+ * 팝 요청은 상한에서 리더보드 예약분을 뺀 만큼만 쓸 수 있어 DB 가 느려져 팝 요청이 쌓여도 리더보드 자리는 남는다.
+ * 자리가 없으면 기다리지 않고 429 로 응답한다.
+ */
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final String POP_PATH = "/api/v1/pop";
+    private static final String POP_PATH_PREFIX = POP_PATH + "/";
+    private static final String LEADERBOARD_PATH = "/api/v1/leaderboard";
+    private static final String LEADERBOARD_PATH_PREFIX = LEADERBOARD_PATH + "/";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    // 상한 중 리더보드 몫으로 남겨 두는 비율
+    private final double leaderboardReservedFraction;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int reserved = isPopPath(request.getServletPath())
+                ? (int) Math.ceil(limiter.getLimit() * leaderboardReservedFraction)
+                : 0;
+        if (!limiter.tryAcquire(reserved)) {
+            sendOverloaded(response);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(startNanos);
+        }
+    }
+
+    private void sendOverloaded(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(),
+                ApiResponse.error("SERVER_OVERLOADED", "Server is busy, retry later"));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !isPopPath(path) && !(path.equals(LEADERBOARD_PATH) || path.startsWith(LEADERBOARD_PATH_PREFIX));
+    }
+
+    private static boolean isPopPath(String path) {
+        return path.equals(POP_PATH) || path.startsWith(POP_PATH_PREFIX);
+    }
+}
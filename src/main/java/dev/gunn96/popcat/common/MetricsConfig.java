@@ -0,0 +1,128 @@
+package dev.gunn96.popcat.common;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.gunn96.popcat.security.jwt.IssuedTokenCache;
+import dev.gunn96.popcat.security.jwt.JwtProvider;
+import dev.gunn96.popcat.security.jwt.TokenRateLimiter;
+import dev.gunn96.popcat.service.GeoIpServiceImpl;
+import dev.gunn96.popcat.service.PopIngestPipeline;
+import dev.gunn96.popcat.service.PopRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder jwtVerifiedTokenCacheMetrics(JwtProvider jwtProvider) {
+        return registry -> bindCache(registry, "jwt.verified-tokens",
+                jwtProvider::getVerifiedTokenCacheStats, jwtProvider::getVerifiedTokenCacheSize);
+    }
+
+    // jwt.reissue 의 히트 횟수가 재사용으로 생략한 발급 횟수다
+    @Bean
+    public MeterBinder issuedTokenCacheMetrics(IssuedTokenCache issuedTokenCache) {
+        return registry -> {
+            bindCache(registry, "jwt.reissue", issuedTokenCache::getStats, issuedTokenCache::getSize);
+            FunctionCounter.builder("jwt.issuance.suppressed", issuedTokenCache, IssuedTokenCache::getSuppressedCount)
+                    .description("Token issuances skipped by reusing a recently issued token for the same IP")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder tokenRateLimiterMetrics(TokenRateLimiter tokenRateLimiter) {
+        return registry -> FunctionCounter.builder("jwt.token-rate-limit.rejected", tokenRateLimiter,
+                        TokenRateLimiter::getRejectedCount)
+                .description("Requests rejected because the token already made a request in the current interval")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder popRateLimiterMetrics(PopRateLimiter popRateLimiter) {
+        return registry -> {
+            Gauge.builder("pop.rate-limit.buckets", popRateLimiter, PopRateLimiter::size)
+                    .description("Visitors currently tracked by the pop rate limiter")
+                    .register(registry);
+            FunctionCounter.builder("pop.rate-limit.rejected", popRateLimiter, PopRateLimiter::getRejectedCount)
+                    .description("Pop requests rejected because the visitor ran out of tokens")
+                    .register(registry);
+        };
+    }
+
+    // 포화 시점의 limit, 처리 중 요청 수, minRtt 를 보고 커넥션 풀과 스레드 수를 정한다
+    @Bean
+    public MeterBinder admissionControlMetrics(AdaptiveConcurrencyLimiter admissionLimiter) {
+        return registry -> {
+            Gauge.builder("admission.limit", admissionLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current concurrency limit of the pop and leaderboard paths")
+                    .register(registry);
+            Gauge.builder("admission.in-flight", admissionLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently admitted on the pop and leaderboard paths")
+                    .register(registry);
+            Gauge.builder("admission.min-rtt", admissionLimiter, limiter -> limiter.getMinRttNanos() / 1_000_000.0)
+                    .description("Lowest observed average latency used as the no-load baseline")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            FunctionCounter.builder("admission.rejected", admissionLimiter,
+                            AdaptiveConcurrencyLimiter::getRejectedCount)
+                    .description("Requests shed with 429 because the concurrency limit was reached")
+                    .register(registry);
+        };
+    }
+
+    // 파티션별 큐 깊이. 한 파티션만 깊으면 그 파티션에 몰린 지역이 뜨거운 것이다
+    @Bean
+    public MeterBinder popIngestMetrics(PopIngestPipeline popIngestPipeline) {
+        return registry -> {
+            for (int partition = 0; partition < popIngestPipeline.partitionCount(); partition++) {
+                int index = partition;
+                Gauge.builder("pop.ingest.queue.depth", popIngestPipeline, pipeline -> pipeline.queueDepth(index))
+                        .tag("partition", Integer.toString(index))
+                        .description("Pops waiting in the ingest partition queue")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder geoIpLookupCacheMetrics(GeoIpServiceImpl geoIpService) {
+        return registry -> bindCache(registry, "geoip.lookup",
+                geoIpService::getLookupCacheStats, geoIpService::getLookupCacheSize);
+    }
+
+    // 캐시 크기, 히트/미스/eviction 횟수, 히트율을 cache.* 이름으로 등록한다.
+    // 측정 대상이 람다라서 GC 되지 않도록 strong reference 로 잡아 둔다
+    private static void bindCache(MeterRegistry registry, String cacheName,
+                                  Supplier<CacheStats> stats, Supplier<Long> size) {
+        Gauge.builder("cache.size", size, Supplier::get)
+                .tag("cache", cacheName)
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", stats, current -> current.get().hitRate())
+                .tag("cache", cacheName)
+                .strongReference(true)
+                .register(registry);
+        counter(registry, cacheName, "cache.gets", "hit", stats, current -> current.get().hitCount());
+        counter(registry, cacheName, "cache.gets", "miss", stats, current -> current.get().missCount());
+        counter(registry, cacheName, "cache.evictions", null, stats, current -> current.get().evictionCount());
+    }
+
+    private static void counter(MeterRegistry registry, String cacheName, String name, String result,
+                                Supplier<CacheStats> stats, ToDoubleFunction<Supplier<CacheStats>> value) {
+        FunctionCounter.Builder<Supplier<CacheStats>> builder = FunctionCounter.builder(name, stats, value)
+                .tag("cache", cacheName)
+                .strongReference(true);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(registry);
+    }
+}
@@ -1,25 +1,158 @@
 package dev.gunn96.popcat.controller;
 
 import dev.gunn96.popcat.common.ApiResponse;
+import dev.gunn96.popcat.domain.LeaderboardSnapshot;
+import dev.gunn96.popcat.dto.response.LeaderboardDeltaResponse;
 import dev.gunn96.popcat.dto.response.LeaderboardResponse;
+import dev.gunn96.popcat.dto.response.RegionRankResponse;
 import dev.gunn96.popcat.service.LeaderboardService;
+import dev.gunn96.popcat.service.LeaderboardStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @Slf4j
 @RequestMapping("/api/v1/leaderboard")
 @RequiredArgsConstructor
 public class LeaderboardController {
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String WEAK_PREFIX = "W/";
+
     private final LeaderboardService leaderboardService;
+    private final LeaderboardStreamService leaderboardStreamService;
 
+    // 미리 직렬화된 스냅샷을 그대로 내려준다. If-None-Match 가 고를 본문의 ETag 와 맞거나 * 이면 304
     @GetMapping
-    public ApiResponse<LeaderboardResponse> getLeaderboard() {
-        log.info("Get leaderboard");
-        return ApiResponse.success(leaderboardService.getLeaderboard());
+    public ResponseEntity<byte[]> getLeaderboard(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        LeaderboardSnapshot snapshot = leaderboardService.getSnapshot();
+        log.debug("Get leaderboard version {}", snapshot.version());
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String eTag = gzip ? snapshot.gzipETag() : snapshot.eTag();
+        if (ifNoneMatch != null && matchesAny(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(snapshot.gzippedJson());
+        }
+        return builder.body(snapshot.json());
+    }
+
+    // since 버전 이후 바뀐 지역만 응답. 너무 오래된 버전이면 전체를 응답한다 (full = true)
+    // since 와 limit 을 함께 보내면 since 가 우선한다
+    @GetMapping(params = "since")
+    public ApiResponse<LeaderboardDeltaResponse> getLeaderboardSince(@RequestParam("since") long since) {
+        return ApiResponse.success(leaderboardService.getLeaderboardSince(since));
+    }
+
+    // 상위 limit 개 지역만 응답 (offset 부터)
+    @GetMapping(params = {"limit", "!since"})
+    public ApiResponse<LeaderboardResponse> getTopRegions(
+            @RequestParam("limit") int limit,
+            @RequestParam(value = "offset", defaultValue = "0") int offset
+    ) {
+        return ApiResponse.success(leaderboardService.getTopRegions(offset, limit));
+    }
+
+    // 지역의 카운트, 순위와 바로 위/아래 지역
+    @GetMapping("/{regionCode}")
+    public ApiResponse<RegionRankResponse> getRegionRank(@PathVariable("regionCode") String regionCode) {
+        return ApiResponse.success(leaderboardService.getRegionRank(regionCode));
+    }
+
+    // 접속 시 전체 스냅샷, 이후에는 바뀐 지역만 delta 이벤트로 전송
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLeaderboard() {
+        return leaderboardStreamService.subscribe();
+    }
+
+    // gzip 또는 * 가 0 보다 큰 q 값으로 허용되었는지. gzip;q=0 처럼 명시적으로 거부하면 * 보다 우선한다
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim();
+            boolean accepted = qualityOf(params) > 0;
+            if (GZIP.equalsIgnoreCase(name) || X_GZIP.equalsIgnoreCase(name)) {
+                return accepted;
+            }
+            if ("*".equals(name)) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard;
+    }
+
+    // q 가 없으면 1, 해석할 수 없으면 0 으로 본다
+    private static double qualityOf(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
     }
 
+    // If-None-Match 의 entity-tag 목록을 읽어 eTag 와 약한 비교로 맞는 것이 있는지. * 는 항상 맞는다.
+    // 형식이 깨진 곳부터는 보지 않는다
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        int length = ifNoneMatch.length();
+        int i = 0;
+        while (i < length) {
+            char c = ifNoneMatch.charAt(i);
+            if (c == ',' || c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            if (c == '*') {
+                return true;
+            }
+            if (ifNoneMatch.startsWith(WEAK_PREFIX, i)) {
+                i += WEAK_PREFIX.length();
+            }
+            if (i >= length || ifNoneMatch.charAt(i) != '"') {
+                return false;
+            }
+            int end = ifNoneMatch.indexOf('"', i + 1);
+            if (end < 0) {
+                return false;
+            }
+            if (ifNoneMatch.regionMatches(i, eTag, 0, eTag.length()) && end + 1 - i == eTag.length()) {
+                return true;
+            }
+            i = end + 1;
+        }
+        return false;
+    }
 }
@@ -2,39 +2,81 @@ package dev.gunn96.popcat.controller;
 
 
 import dev.gunn96.popcat.common.ApiResponse;
+import dev.gunn96.popcat.dto.request.PopBatchRequest;
+import dev.gunn96.popcat.dto.request.PopBeaconRequest;
 import dev.gunn96.popcat.dto.response.PopResponse;
+import dev.gunn96.popcat.exception.PopException;
 import dev.gunn96.popcat.security.jwt.TokenClaims;
+import dev.gunn96.popcat.service.PopRateLimiter;
 import dev.gunn96.popcat.service.PopService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
 @Slf4j
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/pop")
 public class PopController {
     private final PopService popService;
+    private final PopRateLimiter popRateLimiter;
 
     @PostMapping
     public ApiResponse<PopResponse> addPops(
             @RequestParam("count") Long count,
-            @AuthenticationPrincipal TokenClaims claims
+            TokenClaims claims
     ) {
         log.info("Add pops with count {} for IP {} and region {}",
                 count, claims.ipAddress(), claims.regionCode());
-        PopResponse response = popService.addPops(
-                claims.ipAddress(),
-                claims.regionCode(),
-                count
-        );
+        long allowedCount = popRateLimiter.acquire(claims.address(), claims.regionCode(), count);
+        PopResponse response = popService.addPops(claims, allowedCount);
         return ApiResponse.success(response);
     }
 
+    // 모아 둔 팝을 한 번의 토큰 검증과 한 번의 반영으로 처리
+    @PostMapping("/batch")
+    public ApiResponse<PopResponse> addPopBatch(
+            @Valid @RequestBody PopBatchRequest request,
+            TokenClaims claims
+    ) {
+        // 구간별 인정량을 먼저 기록하므로, 뒤에서 rate limiter 가 줄인 만큼은 다시 보내도 인정되지 않는다
+        long batchCount = popService.countBatch(claims, request.pops());
+        log.info("Add pop batch of {} entries ({} pops) for IP {} and region {}",
+                request.pops().size(), batchCount, claims.ipAddress(), claims.regionCode());
+        long allowedCount = popRateLimiter.acquire(claims.address(), claims.regionCode(), batchCount);
+        PopResponse response = popService.addPopBatch(claims, allowedCount);
+        return ApiResponse.success(response);
+    }
+
+    // navigator.sendBeacon 용. 응답 본문 없이 204 를 반환하고, 새 토큰은 X-Pop-Token 헤더로만 준다.
+    // 토큰이 없거나 만료된 요청은 필터가 팝을 반영하지 않고 401 과 X-Pop-Token 으로 응답한다
+    @PostMapping("/beacon")
+    public ResponseEntity<Void> addBeaconPops(
+            HttpServletRequest request,
+            TokenClaims claims
+    ) throws IOException {
+        Long count = PopBeaconRequest.from(request).count();
+        if (count == null) {
+            throw new PopException.InvalidPopCountException();
+        }
+        long allowedCount = popRateLimiter.acquire(claims.address(), claims.regionCode(), count);
+        String newToken = popService.addBeaconPops(claims, allowedCount);
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (newToken != null) {
+            response.header(PopBeaconRequest.TOKEN_HEADER, newToken);
+        }
+        return response.build();
+    }
+
 }
 
 
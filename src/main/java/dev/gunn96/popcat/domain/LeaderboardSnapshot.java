@@ -0,0 +1,52 @@
+package dev.gunn96.popcat.domain;
+
+import dev.gunn96.popcat.dto.response.LeaderboardDeltaResponse;
+import dev.gunn96.popcat.dto.response.LeaderboardResponse;
+import dev.gunn96.popcat.dto.response.RegionPopResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 번 만들어 여러 요청이 공유하는 리더보드 스냅샷.
+ * 응답 JSON(ApiResponse 포함)과 gzip 압축본을 미리 직렬화해 두고, version 을 ETag 로 사용한다.
+ * 두 본문은 바이트가 다르므로 gzip 본문은 "-gz" 를 붙인 별도의 strong ETag 를 쓴다.
+ */
+public record LeaderboardSnapshot(
+        long version,
+        long createdAtMillis,
+        LeaderboardResponse response,
+        Map<String, Long> regionCounts,
+        RegionRanking ranking,
+        byte[] json,
+        byte[] gzippedJson
+) {
+    public String eTag() {
+        return "\"" + version + "\"";
+    }
+
+    public String gzipETag() {
+        return "\"" + version + "-gz\"";
+    }
+
+    // 내용이 같으면 version 과 직렬화 결과를 그대로 재사용한다
+    public LeaderboardSnapshot touch(long createdAtMillis) {
+        return new LeaderboardSnapshot(version, createdAtMillis, response, regionCounts, ranking, json, gzippedJson);
+    }
+
+    public LeaderboardDeltaResponse toFullResponse() {
+        return new LeaderboardDeltaResponse(version, response.getGlobalSum(), true, response.getRankingList());
+    }
+
+    // previous 이후 카운트가 바뀐 지역만 담는다
+    public LeaderboardDeltaResponse toDeltaResponse(LeaderboardSnapshot previous) {
+        List<RegionPopResponse> changed = new ArrayList<>();
+        regionCounts.forEach((regionCode, count) -> {
+            if (!count.equals(previous.regionCounts().get(regionCode))) {
+                changed.add(new RegionPopResponse(regionCode, count));
+            }
+        });
+        return new LeaderboardDeltaResponse(version, response.getGlobalSum(), false, changed);
+    }
+}
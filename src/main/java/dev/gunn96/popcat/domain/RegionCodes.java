@@ -0,0 +1,76 @@
+package dev.gunn96.popcat.domain;
+
+import java.util.Arrays;
+
+/**
+ * GeoIP 가 반환하는 ISO 3166-1 alpha-2 국가 코드(+ XK, UNKNOWN)를 0부터 시작하는 조밀한 인덱스로 매핑한다.
+ * 두 글자 대문자 코드는 26x26 테이블로 바로 찾으므로 조회 시 할당이 없다.
+ */
+public final class RegionCodes {
+    public static final String UNKNOWN = "UNKNOWN";
+    public static final int NOT_FOUND = -1;
+
+    private static final String[] CODES = {
+            "AD", "AE", "AF", "AG", "AI", "AL", "AM", "AO", "AQ", "AR", "AS", "AT", "AU", "AW", "AX", "AZ",
+            "BA", "BB", "BD", "BE", "BF", "BG", "BH", "BI", "BJ", "BL", "BM", "BN", "BO", "BQ", "BR", "BS",
+            "BT", "BV", "BW", "BY", "BZ", "CA", "CC", "CD", "CF", "CG", "CH", "CI", "CK", "CL", "CM", "CN",
+            "CO", "CR", "CU", "CV", "CW", "CX", "CY", "CZ", "DE", "DJ", "DK", "DM", "DO", "DZ", "EC", "EE",
+            "EG", "EH", "ER", "ES", "ET", "FI", "FJ", "FK", "FM", "FO", "FR", "GA", "GB", "GD", "GE", "GF",
+            "GG", "GH", "GI", "GL", "GM", "GN", "GP", "GQ", "GR", "GS", "GT", "GU", "GW", "GY", "HK", "HM",
+            "HN", "HR", "HT", "HU", "ID", "IE", "IL", "IM", "IN", "IO", "IQ", "IR", "IS", "IT", "JE", "JM",
+            "JO", "JP", "KE", "KG", "KH", "KI", "KM", "KN", "KP", "KR", "KW", "KY", "KZ", "LA", "LB", "LC",
+            "LI", "LK", "LR", "LS", "LT", "LU", "LV", "LY", "MA", "MC", "MD", "ME", "MF", "MG", "MH", "MK",
+            "ML", "MM", "MN", "MO", "MP", "MQ", "MR", "MS", "MT", "MU", "MV", "MW", "MX", "MY", "MZ", "NA",
+            "NC", "NE", "NF", "NG", "NI", "NL", "NO", "NP", "NR", "NU", "NZ", "OM", "PA", "PE", "PF", "PG",
+            "PH", "PK", "PL", "PM", "PN", "PR", "PS", "PT", "PW", "PY", "QA", "RE", "RO", "RS", "RU", "RW",
+            "SA", "SB", "SC", "SD", "SE", "SG", "SH", "SI", "SJ", "SK", "SL", "SM", "SN", "SO", "SR", "SS",
+            "ST", "SV", "SX", "SY", "SZ", "TC", "TD", "TF", "TG", "TH", "TJ", "TK", "TL", "TM", "TN", "TO",
+            "TR", "TT", "TV", "TW", "TZ", "UA", "UG", "UM", "US", "UY", "UZ", "VA", "VC", "VE", "VG", "VI",
+            "VN", "VU", "WF", "WS", "XK", "YE", "YT", "ZA", "ZM", "ZW",
+            UNKNOWN
+    };
+    private static final int UNKNOWN_INDEX = CODES.length - 1;
+    private static final short[] ALPHA2_INDEX = new short[26 * 26];
+
+    static {
+        Arrays.fill(ALPHA2_INDEX, (short) NOT_FOUND);
+        for (int i = 0; i < UNKNOWN_INDEX; i++) {
+            ALPHA2_INDEX[alpha2Slot(CODES[i].charAt(0), CODES[i].charAt(1))] = (short) i;
+        }
+    }
+
+    private RegionCodes() {
+    }
+
+    public static int size() {
+        return CODES.length;
+    }
+
+    public static int unknownIndex() {
+        return UNKNOWN_INDEX;
+    }
+
+    // 테이블에 없는 코드는 NOT_FOUND(-1)를 반환한다
+    public static int indexOf(String regionCode) {
+        if (regionCode == null) {
+            return NOT_FOUND;
+        }
+        if (regionCode.length() == 2) {
+            char first = regionCode.charAt(0);
+            char second = regionCode.charAt(1);
+            if (first >= 'A' && first <= 'Z' && second >= 'A' && second <= 'Z') {
+                return ALPHA2_INDEX[alpha2Slot(first, second)];
+            }
+            return NOT_FOUND;
+        }
+        return UNKNOWN.equals(regionCode) ? UNKNOWN_INDEX : NOT_FOUND;
+    }
+
+    public static String codeAt(int index) {
+        return CODES[index];
+    }
+
+    private static int alpha2Slot(char first, char second) {
+        return (first - 'A') * 26 + (second - 'A');
+    }
+}
@@ -0,0 +1,95 @@
+package dev.gunn96.popcat.domain;
+
+import dev.gunn96.popcat.dto.response.RegionPopResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 카운트 내림차순(동점이면 지역 코드 오름차순)으로 정렬된 지역 순위.
+ * 스냅샷이 갱신될 때 바뀐 지역만 빼고 다시 끼워 넣어 갱신하며, 순위 조회는 이진 탐색으로 O(log n) 이다.
+ */
+public final class RegionRanking {
+    private static final Comparator<RegionPopResponse> ORDER = Comparator
+            .comparingLong(RegionPopResponse::getCount).reversed()
+            .thenComparing(RegionPopResponse::getRegionCode);
+
+    private final List<RegionPopResponse> entries;
+
+    private RegionRanking(List<RegionPopResponse> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public static RegionRanking of(Map<String, Long> regionCounts) {
+        List<RegionPopResponse> entries = new ArrayList<>(regionCounts.size());
+        regionCounts.forEach((regionCode, count) -> entries.add(new RegionPopResponse(regionCode, count)));
+        entries.sort(ORDER);
+        return new RegionRanking(entries);
+    }
+
+    // 바뀐 지역만 제거 후 이진 탐색으로 다시 삽입한다. 전체를 다시 정렬하지 않는다
+    public RegionRanking update(Map<String, Long> regionCounts, Collection<String> changedRegionCodes) {
+        Set<String> changed = new HashSet<>(changedRegionCodes);
+        List<RegionPopResponse> updated = new ArrayList<>(regionCounts.size());
+        for (RegionPopResponse entry : entries) {
+            if (!changed.contains(entry.getRegionCode()) && regionCounts.containsKey(entry.getRegionCode())) {
+                updated.add(entry);
+            }
+        }
+        for (String regionCode : changed) {
+            Long count = regionCounts.get(regionCode);
+            if (count == null) {
+                continue;
+            }
+            RegionPopResponse entry = new RegionPopResponse(regionCode, count);
+            int index = Collections.binarySearch(updated, entry, ORDER);
+            updated.add(index < 0 ? -index - 1 : index, entry);
+        }
+        return new RegionRanking(updated);
+    }
+
+    public List<RegionPopResponse> asList() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public RegionPopResponse get(int index) {
+        return entries.get(index);
+    }
+
+    public List<RegionPopResponse> page(int offset, int limit) {
+        int from = Math.min(Math.max(offset, 0), entries.size());
+        int to = Math.min(from + Math.max(limit, 0), entries.size());
+        return entries.subList(from, to);
+    }
+
+    // 목록에서의 위치. 없으면 -1
+    public int indexOf(String regionCode, long count) {
+        int index = Collections.binarySearch(entries, new RegionPopResponse(regionCode, count), ORDER);
+        return index < 0 ? -1 : index;
+    }
+
+    // 1 + 자신보다 카운트가 큰 지역 수 (동점은 같은 순위)
+    public int rankOf(long count) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).getCount() > count) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low + 1;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.gunn96.popcat.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// 클라이언트가 모아 둔 팝을 한 번에 보내는 요청. timestamp 는 클라이언트가 팝을 모은 시각(epoch millis)이다
+public record PopBatchRequest(
+        @NotEmpty
+        @Size(max = 1000)
+        List<@Valid @NotNull Entry> pops) {
+
+    public record Entry(
+            @NotNull Long timestamp,
+            @NotNull @PositiveOrZero Long count) {
+    }
+}
@@ -0,0 +1,76 @@
+package dev.gunn96.popcat.dto.request;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * navigator.sendBeacon 으로 보내는 팝 요청. sendBeacon 은 헤더를 지정할 수 없으므로
+ * 토큰과 개수를 text/plain 본문("개수 토큰", 공백 또는 줄바꿈으로 구분)으로 받는다.
+ * 헤더를 쓸 수 있는 클라이언트는 Authorization: Bearer 와 X-Pop-Count 를 보내도 된다.
+ *
+ * 본문은 한 번만 읽을 수 있으므로 파싱 결과를 요청 속성에 담아 필터와 컨트롤러가 함께 쓴다.
+ */
+public record PopBeaconRequest(String token, Long count) {
+    public static final String COUNT_HEADER = "X-Pop-Count";
+    // beacon 응답은 본문이 없으므로 새 토큰은 이 응답 헤더로만 내려준다
+    public static final String TOKEN_HEADER = "X-Pop-Token";
+
+    private static final String ATTRIBUTE = PopBeaconRequest.class.getName();
+    private static final String BEARER_PREFIX = "Bearer ";
+    // 개수와 토큰만 담기므로 이보다 긴 본문은 읽지 않는다
+    private static final int MAX_BODY_LENGTH = 4096;
+
+    public static PopBeaconRequest from(HttpServletRequest request) throws IOException {
+        if (request.getAttribute(ATTRIBUTE) instanceof PopBeaconRequest parsed) {
+            return parsed;
+        }
+        String token = null;
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            token = authorization.substring(BEARER_PREFIX.length());
+        }
+        Long count = parseCount(request.getHeader(COUNT_HEADER));
+
+        if (token == null || count == null) {
+            String[] parts = readBody(request).trim().split("\\s+");
+            if (count == null && !parts[0].isEmpty()) {
+                count = parseCount(parts[0]);
+            }
+            if (token == null && parts.length > 1) {
+                token = parts[1];
+            }
+        }
+
+        PopBeaconRequest parsed = new PopBeaconRequest(token, count);
+        request.setAttribute(ATTRIBUTE, parsed);
+        return parsed;
+    }
+
+    private static String readBody(HttpServletRequest request) throws IOException {
+        StringBuilder body = new StringBuilder();
+        char[] buffer = new char[512];
+        try (Reader reader = request.getReader()) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (body.length() + read > MAX_BODY_LENGTH) {
+                    return "";
+                }
+                body.append(buffer, 0, read);
+            }
+        }
+        return body.toString();
+    }
+
+    private static Long parseCount(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.gunn96.popcat.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 특정 버전 이후 카운트가 바뀐 지역만 담는 리더보드 응답.
+ * full 이 true 이면 regions 는 전체 지역 목록이다.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+public class LeaderboardDeltaResponse {
+    private long version;
+    private long globalSum;
+    private boolean full;
+    private List<RegionPopResponse> regions;
+}
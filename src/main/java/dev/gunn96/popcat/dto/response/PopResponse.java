@@ -1,10 +1,12 @@
 package dev.gunn96.popcat.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 
 @Builder
 public record PopResponse(
         Long countAppend,
-        String newToken,
+        // 토큰을 갱신할 때만 내려준다
+        @JsonInclude(JsonInclude.Include.NON_NULL) String newToken,
         Boolean isProcessed) {
 }
@@ -0,0 +1,18 @@
+package dev.gunn96.popcat.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegionRankResponse {
+    private String regionCode;
+    private long count;
+    private long rank;
+    private RegionPopResponse above;
+    private RegionPopResponse below;
+}
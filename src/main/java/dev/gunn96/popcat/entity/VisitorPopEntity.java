@@ -24,7 +24,7 @@ public class VisitorPopEntity extends BaseEntity {
 
     private long count;
 
-    //TODO 동시성 문제 발생 원인. MVP 구현 후 해결하기
+    // 카운트 증가에는 사용하지 않는다. 동시성 보장을 위해 VisitorPopRepository.incrementCount 를 사용할 것
     public void updateCount(long count) {
         this.count = count;
     }
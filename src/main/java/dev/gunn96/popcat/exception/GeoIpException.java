@@ -30,6 +30,10 @@ public class GeoIpException extends RuntimeException {
             super(DEFAULT_MESSAGE, cause);
         }
 
+        public InvalidIpAddressException(String ipAddress) {
+            super(DEFAULT_MESSAGE + ": " + ipAddress);
+        }
+
         public InvalidIpAddressException(String ipAddress, Throwable cause) {
             super(DEFAULT_MESSAGE + ": " + ipAddress, cause);
         }
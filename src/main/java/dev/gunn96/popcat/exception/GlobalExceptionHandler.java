@@ -2,7 +2,9 @@ package dev.gunn96.popcat.exception;
 
 import dev.gunn96.popcat.common.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -40,6 +42,36 @@ public class GlobalExceptionHandler {
         return ApiResponse.error("GEOIP_LOOKUP_ERROR", e.getMessage());
     }
 
+    @ExceptionHandler(LeaderboardException.RegionNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ApiResponse<Void> handleRegionNotFoundException(
+            LeaderboardException.RegionNotFoundException e) {
+        log.debug("Region not found. Message: {}", e.getMessage());
+        return ApiResponse.error("REGION_NOT_FOUND", e.getMessage());
+    }
+
+    @ExceptionHandler(PopException.RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRateLimitExceededException(
+            PopException.RateLimitExceededException e) {
+        log.debug("Rate limit exceeded. Retry after {}s", e.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error("RATE_LIMIT_EXCEEDED", e.getMessage()));
+    }
+
+    @ExceptionHandler(PopException.InvalidPopCountException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiResponse<Void> handleInvalidPopCountException(PopException.InvalidPopCountException e) {
+        return ApiResponse.error("INVALID_POP_COUNT", e.getMessage());
+    }
+
+    @ExceptionHandler(PopException.PopsNotCreditedException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiResponse<Void> handlePopsNotCreditedException(PopException.PopsNotCreditedException e) {
+        log.debug("Pops not credited. Message: {}", e.getMessage());
+        return ApiResponse.error("POPS_NOT_CREDITED", e.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiResponse<Map<String, String>> handleValidationExceptions(
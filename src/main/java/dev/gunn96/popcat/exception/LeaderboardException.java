@@ -0,0 +1,16 @@
+package dev.gunn96.popcat.exception;
+
+public class LeaderboardException extends RuntimeException {
+    public LeaderboardException(String message) {
+        super(message);
+    }
+
+    // 리더보드에 없는 지역
+    public static class RegionNotFoundException extends LeaderboardException {
+        private static final String DEFAULT_MESSAGE = "Region not found in leaderboard";
+
+        public RegionNotFoundException(String regionCode) {
+            super(DEFAULT_MESSAGE + ": " + regionCode);
+        }
+    }
+}
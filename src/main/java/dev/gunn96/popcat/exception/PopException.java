@@ -0,0 +1,41 @@
+package dev.gunn96.popcat.exception;
+
+public class PopException extends RuntimeException {
+    public PopException(String message) {
+        super(message);
+    }
+
+    // 방문자별 허용량을 넘긴 요청. retryAfterSeconds 뒤에 다시 보낼 수 있다
+    public static class RateLimitExceededException extends PopException {
+        private static final String DEFAULT_MESSAGE = "Too many pops, retry later";
+
+        private final long retryAfterSeconds;
+
+        public RateLimitExceededException(long retryAfterSeconds) {
+            super(DEFAULT_MESSAGE);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    // 개수를 읽을 수 없는 요청
+    public static class InvalidPopCountException extends PopException {
+        private static final String DEFAULT_MESSAGE = "Pop count is missing or not a number";
+
+        public InvalidPopCountException() {
+            super(DEFAULT_MESSAGE);
+        }
+    }
+
+    // 구간 상한을 이미 채워 한 개도 인정하지 못한 요청. 같은 배치를 다시 보낸 경우가 대부분이다
+    public static class PopsNotCreditedException extends PopException {
+        private static final String DEFAULT_MESSAGE = "Pops in this window were already credited";
+
+        public PopsNotCreditedException() {
+            super(DEFAULT_MESSAGE);
+        }
+    }
+}
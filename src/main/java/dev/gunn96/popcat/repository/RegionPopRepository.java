@@ -2,6 +2,88 @@ package dev.gunn96.popcat.repository;
 
 import dev.gunn96.popcat.entity.RegionPopEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface RegionPopRepository extends JpaRepository<RegionPopEntity, String> {
+
+    // 리더보드 조회 (idx_region_pops_count 인덱스 사용). 동점이면 지역 코드 오름차순으로 RegionRanking 과 같은 순서다
+    @Query(value = "SELECT * FROM region_pops ORDER BY count DESC, region_code ASC LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<RegionPopEntity> findTopByCount(@Param("limit") int limit, @Param("offset") int offset);
+
+    long countByCountGreaterThan(long count);
+
+    // 위 순서에서 바로 앞 지역. 동점인 지역도 지역 코드 순서로 건너뛰지 않는다
+    @Query(value = """
+            SELECT * FROM region_pops
+            WHERE count > :count OR (count = :count AND region_code < :regionCode)
+            ORDER BY count ASC, region_code DESC
+            LIMIT 1
+            """, nativeQuery = true)
+    Optional<RegionPopEntity> findAbove(@Param("regionCode") String regionCode, @Param("count") long count);
+
+    // 위 순서에서 바로 뒤 지역
+    @Query(value = """
+            SELECT * FROM region_pops
+            WHERE count < :count OR (count = :count AND region_code > :regionCode)
+            ORDER BY count DESC, region_code ASC
+            LIMIT 1
+            """, nativeQuery = true)
+    Optional<RegionPopEntity> findBelow(@Param("regionCode") String regionCode, @Param("count") long count);
+
+    @Query("SELECT COALESCE(SUM(r.count), 0) FROM RegionPopEntity r")
+    long sumCount();
+
+    // PostgreSQL: 한 번의 쿼리로 원자적으로 카운트를 증가시킨다
+    @Modifying
+    @Query(value = """
+            INSERT INTO region_pops (region_code, count, created_at, updated_at, is_deleted)
+            VALUES (:regionCode, :delta, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            ON CONFLICT (region_code)
+            DO UPDATE SET count = region_pops.count + EXCLUDED.count, updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int incrementCount(@Param("regionCode") String regionCode, @Param("delta") long delta);
+
+    // H2: ON CONFLICT 를 지원하지 않으므로 MERGE 로 동일하게 처리한다
+    @Modifying
+    @Query(value = """
+            MERGE INTO region_pops t
+            USING (SELECT CAST(:regionCode AS VARCHAR(10)) AS region_code, CAST(:delta AS BIGINT) AS delta) s
+            ON t.region_code = s.region_code
+            WHEN MATCHED THEN
+                UPDATE SET count = t.count + s.delta, updated_at = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN
+                INSERT (region_code, count, created_at, updated_at, is_deleted)
+                VALUES (s.region_code, s.delta, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            """, nativeQuery = true)
+    int mergeIncrementCount(@Param("regionCode") String regionCode, @Param("delta") long delta);
+
+    // PostgreSQL: 외부 카운터 저장소의 누적값을 기록한다. 더 작은 값으로 되돌아가지 않는다
+    @Modifying
+    @Query(value = """
+            INSERT INTO region_pops (region_code, count, created_at, updated_at, is_deleted)
+            VALUES (:regionCode, :count, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            ON CONFLICT (region_code)
+            DO UPDATE SET count = GREATEST(region_pops.count, EXCLUDED.count), updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int saveCountIfGreater(@Param("regionCode") String regionCode, @Param("count") long count);
+
+    // H2: saveCountIfGreater 의 MERGE 버전
+    @Modifying
+    @Query(value = """
+            MERGE INTO region_pops t
+            USING (SELECT CAST(:regionCode AS VARCHAR(10)) AS region_code, CAST(:count AS BIGINT) AS count) s
+            ON t.region_code = s.region_code
+            WHEN MATCHED THEN
+                UPDATE SET count = GREATEST(t.count, s.count), updated_at = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN
+                INSERT (region_code, count, created_at, updated_at, is_deleted)
+                VALUES (s.region_code, s.count, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            """, nativeQuery = true)
+    int mergeCountIfGreater(@Param("regionCode") String regionCode, @Param("count") long count);
 }
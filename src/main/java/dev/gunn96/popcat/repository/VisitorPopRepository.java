@@ -2,9 +2,72 @@ package dev.gunn96.popcat.repository;
 
 import dev.gunn96.popcat.entity.VisitorPopEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface VisitorPopRepository extends JpaRepository<VisitorPopEntity, VisitorPopEntity.VisitorPopId> {
     Optional<VisitorPopEntity> findByIpAddressAndRegionCode(String ipAddress, String regionCode);
+
+    // PostgreSQL: 한 번의 쿼리로 원자적으로 카운트를 증가시킨다
+    @Modifying
+    @Query(value = """
+            INSERT INTO visitor_pops (ip_address, region_code, count, created_at, updated_at, is_deleted)
+            VALUES (:ipAddress, :regionCode, :delta, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            ON CONFLICT (ip_address, region_code)
+            DO UPDATE SET count = visitor_pops.count + EXCLUDED.count, updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int incrementCount(@Param("ipAddress") String ipAddress,
+                       @Param("regionCode") String regionCode,
+                       @Param("delta") long delta);
+
+    // H2: ON CONFLICT 를 지원하지 않으므로 MERGE 로 동일하게 처리한다
+    @Modifying
+    @Query(value = """
+            MERGE INTO visitor_pops t
+            USING (SELECT CAST(:ipAddress AS VARCHAR(45)) AS ip_address,
+                          CAST(:regionCode AS VARCHAR(10)) AS region_code,
+                          CAST(:delta AS BIGINT) AS delta) s
+            ON t.ip_address = s.ip_address AND t.region_code = s.region_code
+            WHEN MATCHED THEN
+                UPDATE SET count = t.count + s.delta, updated_at = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN
+                INSERT (ip_address, region_code, count, created_at, updated_at, is_deleted)
+                VALUES (s.ip_address, s.region_code, s.delta, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            """, nativeQuery = true)
+    int mergeIncrementCount(@Param("ipAddress") String ipAddress,
+                            @Param("regionCode") String regionCode,
+                            @Param("delta") long delta);
+
+    // PostgreSQL: 외부 카운터 저장소의 누적값을 기록한다. 더 작은 값으로 되돌아가지 않는다
+    @Modifying
+    @Query(value = """
+            INSERT INTO visitor_pops (ip_address, region_code, count, created_at, updated_at, is_deleted)
+            VALUES (:ipAddress, :regionCode, :count, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            ON CONFLICT (ip_address, region_code)
+            DO UPDATE SET count = GREATEST(visitor_pops.count, EXCLUDED.count), updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int saveCountIfGreater(@Param("ipAddress") String ipAddress,
+                           @Param("regionCode") String regionCode,
+                           @Param("count") long count);
+
+    // H2: saveCountIfGreater 의 MERGE 버전
+    @Modifying
+    @Query(value = """
+            MERGE INTO visitor_pops t
+            USING (SELECT CAST(:ipAddress AS VARCHAR(45)) AS ip_address,
+                          CAST(:regionCode AS VARCHAR(10)) AS region_code,
+                          CAST(:count AS BIGINT) AS count) s
+            ON t.ip_address = s.ip_address AND t.region_code = s.region_code
+            WHEN MATCHED THEN
+                UPDATE SET count = GREATEST(t.count, s.count), updated_at = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN
+                INSERT (ip_address, region_code, count, created_at, updated_at, is_deleted)
+                VALUES (s.ip_address, s.region_code, s.count, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, FALSE)
+            """, nativeQuery = true)
+    int mergeCountIfGreater(@Param("ipAddress") String ipAddress,
+                            @Param("regionCode") String regionCode,
+                            @Param("count") long count);
 }
@@ -1,33 +1,86 @@
 package dev.gunn96.popcat.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gunn96.popcat.security.jwt.IssuedTokenCache;
 import dev.gunn96.popcat.security.jwt.JwtAuthenticationFilter;
 import dev.gunn96.popcat.security.jwt.JwtAuthenticationProvider;
 import dev.gunn96.popcat.security.jwt.JwtProvider;
+import dev.gunn96.popcat.security.jwt.TokenRateLimiter;
 import dev.gunn96.popcat.service.GeoIpService;
+import dev.gunn96.popcat.service.PopRateLimiter;
+import dev.gunn96.popcat.util.TrustedProxies;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AuthorizeHttpRequestsConfigurer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationProvider jwtAuthenticationProvider;
 
+    // 켜면 JwtAuthenticationFilter 가 토큰을 직접 검증하고 인증 여부를 판단한다.
+    // 필터를 통과한 요청만 컨트롤러에 닿으므로 인가 단계에서는 팝 경로를 열어 둔다
+    @Value("${popcat.security.fast-path.enabled:false}")
+    private boolean fastPathEnabled;
+
+    // 로드밸런서/리버스 프록시 대역. 예) popcat.trusted-proxies=10.0.0.0/8,2001:db8::/32
+    @Bean
+    public TrustedProxies trustedProxies(@Value("${popcat.trusted-proxies:}") List<String> cidrs) {
+        return TrustedProxies.of(cidrs);
+    }
+
+    // 토큰 없이 반복 요청하는 IP 에 같은 토큰을 돌려주는 시간. 0 이면 매번 발급한다
+    @Bean
+    public IssuedTokenCache issuedTokenCache(
+            @Value("${popcat.token.reuse-window-ms:5000}") long reuseWindowMillis,
+            @Value("${popcat.token.reuse-max-size:100000}") long reuseMaxSize) {
+        return new IssuedTokenCache(Duration.ofMillis(reuseWindowMillis), reuseWindowMillis > 0 ? reuseMaxSize : 0);
+    }
+
+    // 토큰별 속도 제한. 같은 토큰(jti)의 요청은 interval 마다 한 번만 받고 나머지는 429 로 거절한다.
+    // 재전송 방어는 아니다: interval 이 지나면 같은 토큰을 다시 받는다.
+    // expected-tokens 는 한 interval 에 쓰이는 토큰 수 추정치다. 이전 이름인 popcat.replay-guard.* 도 읽는다
+    @Bean
+    public TokenRateLimiter tokenRateLimiter(
+            @Value("${popcat.token-rate-limit.enabled:${popcat.replay-guard.enabled:false}}") boolean enabled,
+            @Value("${popcat.token-rate-limit.interval-ms:${popcat.replay-guard.interval-ms:1000}}")
+            long intervalMillis,
+            @Value("${popcat.token-rate-limit.expected-tokens:${popcat.replay-guard.expected-tokens:100000}}")
+            long expectedTokens,
+            @Value("${popcat.token-rate-limit.fpp:${popcat.replay-guard.fpp:0.001}}") double falsePositiveRate) {
+        return new TokenRateLimiter(enabled, intervalMillis, expectedTokens, falsePositiveRate);
+    }
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter(
             AuthenticationConfiguration authConfig, JwtProvider jwtProvider,
-            GeoIpService geoIpService, ObjectMapper objectMapper) throws Exception {
+            GeoIpService geoIpService, ObjectMapper objectMapper,
+            TrustedProxies trustedProxies, IssuedTokenCache issuedTokenCache,
+            TokenRateLimiter tokenRateLimiter, ObjectProvider<PopRateLimiter> popRateLimiter) throws Exception {
+        warnIfClientAddressIsSpoofable(trustedProxies, tokenRateLimiter, popRateLimiter.getIfAvailable());
+        // 토큰별 속도 제한을 켜면 토큰을 IP 별로 공유하지 않는다.
+        // 같은 NAT 뒤의 클라이언트들이 같은 jti 를 받아 서로의 한도를 나눠 쓰게 되기 때문이다
+        boolean tokenRateLimitEnabled = tokenRateLimiter.isEnabled();
         return new JwtAuthenticationFilter(authConfig.getAuthenticationManager(),
-                jwtProvider, geoIpService, objectMapper
+                jwtProvider, geoIpService, objectMapper, trustedProxies,
+                tokenRateLimitEnabled ? null : issuedTokenCache, fastPathEnabled,
+                tokenRateLimitEnabled ? tokenRateLimiter : null
         );
     }
 
@@ -41,10 +94,10 @@ public class SecurityConfig {
                 .sessionManagement(configurer ->
                         configurer.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .authorizeHttpRequests(auth -> auth
+                .authorizeHttpRequests(auth -> authorizePopPaths(auth
                         .requestMatchers("/").permitAll()
                         .requestMatchers("/api/v1/leaderboard").permitAll()
-                        .requestMatchers("/api/v1/pop/**").authenticated()
+                        .requestMatchers("/api/v1/pop/**"))
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(jwtAuthenticationProvider)
@@ -52,4 +105,27 @@ public class SecurityConfig {
                 .securityMatcher("/api/v1/pop/**")
                 .build();
     }
-}
\ No newline at end of file
+
+    // 신뢰할 프록시가 없으면 X-Forwarded-For 의 첫 주소를 그대로 믿으므로,
+    // 클라이언트가 헤더를 바꿔 가며 IP 별 한도를 피할 수 있다
+    private static void warnIfClientAddressIsSpoofable(TrustedProxies trustedProxies,
+                                                       TokenRateLimiter tokenRateLimiter,
+                                                       PopRateLimiter popRateLimiter) {
+        if (!trustedProxies.isEmpty()) {
+            return;
+        }
+        if (popRateLimiter != null && popRateLimiter.isEnabled()) {
+            log.warn("popcat.rate-limit is enabled but popcat.trusted-proxies is empty. "
+                    + "Clients can bypass the per-IP limit by sending their own X-Forwarded-For header");
+        }
+        if (tokenRateLimiter.isEnabled()) {
+            log.warn("popcat.token-rate-limit is enabled but popcat.trusted-proxies is empty. "
+                    + "Clients can get tokens for any IP by sending their own X-Forwarded-For header");
+        }
+    }
+
+    private AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry authorizePopPaths(
+            AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizedUrl popPaths) {
+        return fastPathEnabled ? popPaths.permitAll() : popPaths.authenticated();
+    }
+}
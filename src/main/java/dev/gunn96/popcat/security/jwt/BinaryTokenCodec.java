@@ -0,0 +1,238 @@
+package dev.gunn96.popcat.security.jwt;
+
+import dev.gunn96.popcat.domain.RegionCodes;
+import dev.gunn96.popcat.exception.JwtException;
+import dev.gunn96.popcat.util.IpAddress;
+import io.jsonwebtoken.ExpiredJwtException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 고정 레이아웃의 바이너리 토큰. URL-safe base64(패딩 없음)로 인코딩하며 IPv4 는 40자, IPv6 는 56자다.
+ * <pre>
+ * [0]      버전(상위 4비트) | 주소 종류(0: IPv4, 1: IPv6)
+ * [1]      지역 코드 인덱스 ({@link RegionCodes})
+ * [2..5]   발급 시각 (epoch seconds, unsigned)
+ * [6..9]   만료 시각 (epoch seconds, unsigned)
+ * [10..13] nonce
+ * [14..]   IP 주소 (4 또는 16 바이트)
+ * [..]     앞 내용의 HMAC-SHA256 앞 12 바이트
+ * </pre>
+ * 서명 키는 비밀 키와 발급 서버 식별자로 유도하므로 다른 서버가 발급한 토큰은 서명 검증에서 걸러진다.
+ */
+public class BinaryTokenCodec implements TokenCodec {
+    private static final int VERSION = 1;
+    private static final int FAMILY_IPV6 = 1;
+    private static final int HEADER_LENGTH = 14;
+    private static final int MAC_LENGTH = 12;
+    private static final int IPV4_TOKEN_LENGTH = HEADER_LENGTH + 4 + MAC_LENGTH;
+    private static final int IPV6_TOKEN_LENGTH = HEADER_LENGTH + 16 + MAC_LENGTH;
+    private static final int IPV4_ENCODED_LENGTH = (IPV4_TOKEN_LENGTH * 4 + 2) / 3;
+    private static final int IPV6_ENCODED_LENGTH = (IPV6_TOKEN_LENGTH * 4 + 2) / 3;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    // 서명은 블로킹 없이 CPU 만 쓰므로 동시에 쓰이는 Mac 은 코어 수 정도면 충분하다
+    private static final int MAX_IDLE_MACS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String issuer;
+    private final SecretKeySpec macKey;
+    // Mac 은 스레드 안전하지 않으므로 초기화된 인스턴스를 빌려 쓰고 돌려놓는다.
+    // 가상 스레드는 요청마다 새 스레드라 ThreadLocal 로는 매번 Mac 을 새로 만들게 된다
+    private final ConcurrentLinkedQueue<MacHolder> idleMacs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleMacCount = new AtomicInteger();
+
+    public BinaryTokenCodec(byte[] secret, String issuer) {
+        this.issuer = issuer;
+        this.macKey = new SecretKeySpec(deriveKey(secret, issuer), HMAC_ALGORITHM);
+    }
+
+    @Override
+    public String issue(IpAddress address, String regionCode, long issuedAt, long expiresAt) {
+        int regionIndex = RegionCodes.indexOf(regionCode);
+        if (address == null || regionIndex == RegionCodes.NOT_FOUND) {
+            return null;
+        }
+
+        byte[] token = new byte[address.isIpv4() ? IPV4_TOKEN_LENGTH : IPV6_TOKEN_LENGTH];
+        token[0] = (byte) (VERSION << 4 | (address.isIpv4() ? 0 : FAMILY_IPV6));
+        token[1] = (byte) regionIndex;
+        putInt(token, 2, (int) issuedAt);
+        putInt(token, 6, (int) expiresAt);
+        putInt(token, 10, ThreadLocalRandom.current().nextInt());
+        if (address.isIpv4()) {
+            putInt(token, HEADER_LENGTH, address.ipv4Value());
+        } else {
+            putLong(token, HEADER_LENGTH, address.high());
+            putLong(token, HEADER_LENGTH + 8, address.low());
+        }
+        int payloadLength = token.length - MAC_LENGTH;
+        sign(token, payloadLength, token, payloadLength);
+        return ENCODER.encodeToString(token);
+    }
+
+    @Override
+    public TokenClaims verify(String token, IpAddress address) {
+        byte[] bytes = decode(token);
+        int payloadLength = bytes.length - MAC_LENGTH;
+        byte[] expected = new byte[MAC_LENGTH];
+        sign(bytes, payloadLength, expected, 0);
+        if (!macMatches(expected, bytes, payloadLength)) {
+            throw new JwtException.InvalidTokenException("Invalid token signature");
+        }
+
+        boolean ipv4 = bytes.length == IPV4_TOKEN_LENGTH;
+        int expectedHeader = VERSION << 4 | (ipv4 ? 0 : FAMILY_IPV6);
+        int regionIndex = bytes[1] & 0xFF;
+        if ((bytes[0] & 0xFF) != expectedHeader || regionIndex >= RegionCodes.size()) {
+            throw new JwtException.InvalidTokenException("Invalid token format");
+        }
+
+        boolean ipMatches = address != null && address.isIpv4() == ipv4 && (ipv4
+                ? address.ipv4Value() == getInt(bytes, HEADER_LENGTH)
+                : address.high() == getLong(bytes, HEADER_LENGTH) && address.low() == getLong(bytes, HEADER_LENGTH + 8));
+        if (!ipMatches) {
+            throw new JwtException.InvalidTokenException("Invalid token claims");
+        }
+
+        long issuedAt = getInt(bytes, 2) & 0xFFFFFFFFL;
+        long expiresAt = getInt(bytes, 6) & 0xFFFFFFFFL;
+        long notBefore = issuedAt - NOT_BEFORE_SKEW_SECONDS;
+        // JJWT 와 같이 밀리초 단위로 비교한다
+        long now = System.currentTimeMillis();
+        if (now > expiresAt * 1000) {
+            throw new ExpiredJwtException(null, null, "Token expired at " + expiresAt);
+        }
+        if (now < notBefore * 1000) {
+            throw new JwtException.InvalidTokenException("Token is not yet valid");
+        }
+
+        long nonce = getInt(bytes, 10) & 0xFFFFFFFFL;
+        return TokenClaims.builder()
+                .id(Long.toHexString(issuedAt << 32 | nonce))
+                .issuer(issuer)
+                .ipAddress(address.toString())
+                .address(address)
+                .regionCode(RegionCodes.codeAt(regionIndex))
+                .issuedAt(issuedAt)
+                .notBefore(notBefore)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    // 바이너리 토큰은 '.' 이 없고 길이가 정해져 있다
+    @Override
+    public boolean supports(String token) {
+        return (token.length() == IPV4_ENCODED_LENGTH || token.length() == IPV6_ENCODED_LENGTH)
+                && token.indexOf('.') < 0;
+    }
+
+    private static byte[] decode(String token) {
+        if (token == null || (token.length() != IPV4_ENCODED_LENGTH && token.length() != IPV6_ENCODED_LENGTH)) {
+            throw new JwtException.InvalidTokenException("Invalid token format");
+        }
+        try {
+            return DECODER.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new JwtException.InvalidTokenException("Invalid token format", e);
+        }
+    }
+
+    // token 앞 length 바이트의 HMAC 앞 MAC_LENGTH 바이트를 out[offset..] 에 쓴다
+    private void sign(byte[] token, int length, byte[] out, int offset) {
+        MacHolder holder = borrowMac();
+        try {
+            holder.mac.update(token, 0, length);
+            holder.mac.doFinal(holder.digest, 0);
+            System.arraycopy(holder.digest, 0, out, offset, MAC_LENGTH);
+        } catch (GeneralSecurityException e) {
+            holder.mac.reset();
+            throw new IllegalStateException("Failed to sign token", e);
+        } finally {
+            releaseMac(holder);
+        }
+    }
+
+    private MacHolder borrowMac() {
+        MacHolder holder = idleMacs.poll();
+        if (holder == null) {
+            return new MacHolder(newMac(macKey));
+        }
+        idleMacCount.decrementAndGet();
+        return holder;
+    }
+
+    // 쉬는 Mac 은 MAX_IDLE_MACS 개까지만 남기고 나머지는 버린다
+    private void releaseMac(MacHolder holder) {
+        if (idleMacCount.incrementAndGet() <= MAX_IDLE_MACS) {
+            idleMacs.offer(holder);
+        } else {
+            idleMacCount.decrementAndGet();
+        }
+    }
+
+    // 상수 시간 비교
+    private static boolean macMatches(byte[] digest, byte[] token, int offset) {
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= digest[i] ^ token[offset + i];
+        }
+        return diff == 0;
+    }
+
+    private static byte[] deriveKey(byte[] secret, String issuer) {
+        Mac mac = newMac(new SecretKeySpec(secret, HMAC_ALGORITHM));
+        return mac.doFinal(("popcat.binary-token|" + issuer).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        putInt(bytes, offset, (int) (value >>> 32));
+        putInt(bytes, offset + 4, (int) value);
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24
+                | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8
+                | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        return (long) getInt(bytes, offset) << 32 | (getInt(bytes, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    private static final class MacHolder {
+        private final Mac mac;
+        private final byte[] digest;
+
+        private MacHolder(Mac mac) {
+            this.mac = mac;
+            this.digest = new byte[mac.getMacLength()];
+        }
+    }
+}
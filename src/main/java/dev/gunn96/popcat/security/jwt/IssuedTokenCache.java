@@ -0,0 +1,46 @@
+package dev.gunn96.popcat.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.gunn96.popcat.util.IpAddress;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 토큰 없이 들어온 요청에 발급한 토큰을 IP 별로 잠시 보관한다.
+ * 같은 IP 가 창(window) 안에 다시 토큰 없이 요청하면 GeoIP 조회와 서명 없이 같은 토큰을 돌려준다.
+ * 창은 토큰 수명보다 충분히 짧아야 재사용된 토큰이 곧바로 만료되지 않는다.
+ * 같은 NAT 뒤의 클라이언트는 같은 토큰(jti)을 받으므로 TokenRateLimiter 와 함께 쓰면 토큰별 한도를 서로 나눠 쓴다.
+ * 그래서 TokenRateLimiter 를 켜면 SecurityConfig 가 이 캐시를 필터에 넘기지 않는다.
+ */
+public class IssuedTokenCache {
+    private final Cache<IpAddress, String> tokensByIp;
+
+    public IssuedTokenCache(Duration window, long maxSize) {
+        this.tokensByIp = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(window)
+                .recordStats()
+                .build();
+    }
+
+    // 같은 IP 의 동시 요청도 한 번만 발급한다
+    public String getOrIssue(IpAddress ipAddress, Function<IpAddress, String> issuer) {
+        return tokensByIp.get(ipAddress, issuer);
+    }
+
+    // 재사용으로 발급을 생략한 횟수
+    public long getSuppressedCount() {
+        return tokensByIp.stats().hitCount();
+    }
+
+    public CacheStats getStats() {
+        return tokensByIp.stats();
+    }
+
+    public long getSize() {
+        return tokensByIp.estimatedSize();
+    }
+}
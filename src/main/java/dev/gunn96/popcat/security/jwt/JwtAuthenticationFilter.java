@@ -2,50 +2,87 @@ package dev.gunn96.popcat.security.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.gunn96.popcat.common.ApiResponse;
+import dev.gunn96.popcat.dto.request.PopBeaconRequest;
 import dev.gunn96.popcat.dto.response.PopResponse;
 import dev.gunn96.popcat.service.GeoIpService;
+import dev.gunn96.popcat.util.IpAddress;
 import dev.gunn96.popcat.util.IpAddressUtil;
+import dev.gunn96.popcat.util.TrustedProxies;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Set;
 
 
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
-    private static final Set<String> SECURED_API_PATHS = Set.of(
-            "/api/v1/pop",
-            "/api/v1/pop/**"
-    );
+    // "/api/v1/pop", "/api/v1/pop/**" 와 같다. 요청마다 패턴을 해석하지 않도록 문자열 비교로 처리한다
+    private static final String SECURED_API_PATH = "/api/v1/pop";
+    private static final String SECURED_API_PATH_PREFIX = SECURED_API_PATH + "/";
+    private static final String BEACON_PATH = SECURED_API_PATH_PREFIX + "beacon";
+    // fast path 에서 검증한 TokenClaims 를 담는 요청 속성
+    public static final String TOKEN_CLAIMS_ATTRIBUTE = TokenClaims.class.getName();
 
     private final AuthenticationManager authenticationManager;
     private final JwtProvider jwtProvider;
     private final GeoIpService geoIpService;
     private final ObjectMapper objectMapper;
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+    // 비어 있으면 X-Forwarded-For 의 첫 번째 주소를 그대로 사용한다
+    private final TrustedProxies trustedProxies;
+    // null 이면 토큰 없는 요청마다 새로 발급한다
+    private final IssuedTokenCache issuedTokenCache;
+    // true 면 AuthenticationManager 와 SecurityContext 를 거치지 않고 JwtProvider 로 바로 검증한다
+    private final boolean fastPath;
+    // null 이면 토큰별 속도 제한을 하지 않는다
+    private final TokenRateLimiter tokenRateLimiter;
+
+    // trustedProxies 가 null 이면 TrustedProxies.NONE 과 같다
+    public JwtAuthenticationFilter(AuthenticationManager authenticationManager, JwtProvider jwtProvider,
+                                   GeoIpService geoIpService, ObjectMapper objectMapper,
+                                   TrustedProxies trustedProxies, IssuedTokenCache issuedTokenCache,
+                                   boolean fastPath, TokenRateLimiter tokenRateLimiter) {
+        this.authenticationManager = authenticationManager;
+        this.jwtProvider = jwtProvider;
+        this.geoIpService = geoIpService;
+        this.objectMapper = objectMapper;
+        this.trustedProxies = trustedProxies != null ? trustedProxies : TrustedProxies.NONE;
+        this.issuedTokenCache = issuedTokenCache;
+        this.fastPath = fastPath;
+        this.tokenRateLimiter = tokenRateLimiter;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        String token = extractBearerTokenThatRemovedPrefix(request);
-        String ipAddress = IpAddressUtil.extractIpAddress(request);
+        String token = isBeacon(request)
+                ? PopBeaconRequest.from(request).token()
+                : extractBearerTokenThatRemovedPrefix(request);
+        // 요청마다 한 번만 파싱하고, GeoIP 조회와 토큰 발급/검증에는 숫자 주소를 그대로 넘긴다
+        IpAddress ipAddress = IpAddressUtil.extractAddress(request, trustedProxies);
+        if (ipAddress == null) {
+            handleInvalidAddress(response);
+            return;
+        }
 
         // Case the token doesn't exist
         if (token == null) {
-            handleNoToken(ipAddress, response);
+            handleNoToken(ipAddress, request, response);
+            return;
+        }
+
+        if (fastPath) {
+            authenticateDirectly(token, ipAddress, request, response, filterChain);
             return;
         }
 
@@ -53,27 +90,77 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             JwtAuthenticationToken authRequest = new JwtAuthenticationToken(token, ipAddress);
             Authentication authentication = authenticationManager.authenticate(authRequest);
+            if (isRateLimited(authentication.getPrincipal())) {
+                handleRateLimitedToken(response);
+                return;
+            }
             SecurityContextHolder.getContext().setAuthentication(authentication);
             filterChain.doFilter(request, response);
         } catch (ExpiredJwtException e) {
-            handleExpiredToken(ipAddress, response);
+            handleExpiredToken(ipAddress, request, response);
         } catch (Exception e) {
             handleInvalidToken(response, "Invalid token");
         }
     }
 
+    // 검증 결과는 요청 속성으로 넘기고, 컨트롤러는 TokenClaimsArgumentResolver 로 꺼내 쓴다
+    private void authenticateDirectly(String token, IpAddress ipAddress, HttpServletRequest request,
+                                      HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TokenClaims claims;
+        try {
+            claims = jwtProvider.validateToken(token, ipAddress);
+        } catch (ExpiredJwtException e) {
+            handleExpiredToken(ipAddress, request, response);
+            return;
+        } catch (Exception e) {
+            handleInvalidToken(response, "Invalid token");
+            return;
+        }
+        if (isRateLimited(claims)) {
+            handleRateLimitedToken(response);
+            return;
+        }
+        request.setAttribute(TOKEN_CLAIMS_ATTRIBUTE, claims);
+        filterChain.doFilter(request, response);
+    }
+
+    // 같은 토큰(jti)이 이번 구간의 한도를 이미 썼는지 확인한다
+    private boolean isRateLimited(Object principal) {
+        return tokenRateLimiter != null && principal instanceof TokenClaims claims && !tokenRateLimiter.tryAcquire(claims.id());
+    }
+
+    private void handleRateLimitedToken(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(tokenRateLimiter.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(),
+                ApiResponse.error("TOKEN_RATE_LIMITED", "Too many requests with this token, retry later"));
+    }
+
     //if the token doesn't exist, publish new token.
-    private void handleNoToken(String ipAddress, HttpServletResponse response) throws IOException {
-        String regionCode = geoIpService.findRegionCodeByIpAddress(ipAddress);
-        String newToken = jwtProvider.generateToken(ipAddress, regionCode);
-        sendTokenResponse(response, newToken);
+    private void handleNoToken(IpAddress ipAddress, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        sendTokenResponse(request, response, issueToken(ipAddress));
     }
 
     // if the token has expired, publish new token.
-    private void handleExpiredToken(String ipAddress, HttpServletResponse response) throws IOException {
-        String regionCode = geoIpService.findRegionCodeByIpAddress(ipAddress);
-        String newToken = jwtProvider.generateToken(ipAddress, regionCode);
-        sendTokenResponse(response, newToken);
+    private void handleExpiredToken(IpAddress ipAddress, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        sendTokenResponse(request, response, issueToken(ipAddress));
+    }
+
+    // 같은 IP 에 최근 발급한 토큰이 있으면 그대로 돌려준다
+    private String issueToken(IpAddress ipAddress) {
+        if (issuedTokenCache == null) {
+            return generateToken(ipAddress);
+        }
+        return issuedTokenCache.getOrIssue(ipAddress, this::generateToken);
+    }
+
+    private String generateToken(IpAddress ipAddress) {
+        String regionCode = geoIpService.findRegionCode(ipAddress);
+        return jwtProvider.generateToken(ipAddress, regionCode);
     }
 
     // if thoe token is failed to validate
@@ -84,7 +171,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 ApiResponse.error("INVALID_TOKEN", message));
     }
 
-    private void sendTokenResponse(HttpServletResponse response, String token) throws IOException {
+    // 프록시 헤더와 RemoteAddr 어디에서도 주소를 읽을 수 없는 경우
+    private void handleInvalidAddress(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(),
+                ApiResponse.error("INVALID_IP_ADDRESS", "Invalid IP address format"));
+    }
+
+    // beacon 요청에는 본문 없이 헤더로만 토큰을 내려준다.
+    // 팝은 반영하지 않았으므로 204 가 아닌 401 로 응답해 클라이언트가 새 토큰으로 다시 보내게 한다
+    private void sendTokenResponse(HttpServletRequest request, HttpServletResponse response, String token)
+            throws IOException {
+        if (isBeacon(request)) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setHeader(PopBeaconRequest.TOKEN_HEADER, token);
+            return;
+        }
         PopResponse popResponse = PopResponse.builder()
                 .countAppend(null)
                 .newToken(token)
@@ -104,11 +207,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
+    private static boolean isBeacon(HttpServletRequest request) {
+        return BEACON_PATH.equals(request.getServletPath());
+    }
+
     //JwtFilter should be applied to /api/vi/pop endpoint
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
-        return SECURED_API_PATHS.stream()
-                .noneMatch(pattern -> antPathMatcher.match(pattern, path));
+        return !(path.equals(SECURED_API_PATH) || path.startsWith(SECURED_API_PATH_PREFIX));
     }
 }
\ No newline at end of file
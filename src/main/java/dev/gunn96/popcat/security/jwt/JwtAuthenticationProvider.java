@@ -1,5 +1,6 @@
 package dev.gunn96.popcat.security.jwt;
 
+import dev.gunn96.popcat.util.IpAddress;
 import io.jsonwebtoken.ExpiredJwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -23,7 +24,7 @@ public class JwtAuthenticationProvider implements AuthenticationProvider {
 
         JwtAuthenticationToken jwtAuthentication = (JwtAuthenticationToken) authentication;
         String token = (String) jwtAuthentication.getCredentials();
-        String ipAddress = jwtAuthentication.getIpAddress();
+        IpAddress ipAddress = jwtAuthentication.getIpAddress();
 
         try {
             TokenClaims claims = jwtProvider.validateToken(token, ipAddress);
@@ -1,5 +1,6 @@
 package dev.gunn96.popcat.security.jwt;
 
+import dev.gunn96.popcat.util.IpAddress;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -7,11 +8,11 @@ import java.util.Collection;
 
 public class JwtAuthenticationToken extends AbstractAuthenticationToken {
     private final String token;
-    private final String ipAddress;  // IP 주소 정보 추가
+    private final IpAddress ipAddress;  // IP 주소 정보 추가
     private TokenClaims claims;
 
     // 인증 전
-    public JwtAuthenticationToken(String token, String ipAddress) {
+    public JwtAuthenticationToken(String token, IpAddress ipAddress) {
         super(null);
         this.token = token;
         this.ipAddress = ipAddress;
@@ -19,7 +20,7 @@ public class JwtAuthenticationToken extends AbstractAuthenticationToken {
     }
 
     // 인증 후
-    public JwtAuthenticationToken(TokenClaims claims, String ipAddress, Collection<? extends GrantedAuthority> authorities) {
+    public JwtAuthenticationToken(TokenClaims claims, IpAddress ipAddress, Collection<? extends GrantedAuthority> authorities) {
         super(authorities);
         this.token = null;
         this.ipAddress = ipAddress;
@@ -37,7 +38,7 @@ public class JwtAuthenticationToken extends AbstractAuthenticationToken {
         return claims;
     }
 
-    public String getIpAddress() {
+    public IpAddress getIpAddress() {
         return ipAddress;
     }
 }
@@ -1,91 +1,142 @@
 package dev.gunn96.popcat.security.jwt;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import dev.gunn96.popcat.exception.JwtException;
-import io.jsonwebtoken.*;
+import dev.gunn96.popcat.util.IpAddress;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 public class JwtProvider {
-    private final SecretKey key;
+    public static final String FORMAT_JWT = "jwt";
+    public static final String FORMAT_BINARY = "binary";
+
     private final String serverIdentifier;
     private final long expirationSeconds;
-    private final JwtParser jwtParser;
+    private final TokenCodec jwtCodec;
+    private final TokenCodec binaryCodec;
+    // 새 토큰을 발급할 형식. 검증은 형식에 관계없이 두 형식을 모두 받는다
+    private final TokenCodec issuingCodec;
+    // 검증에 성공한 토큰을 만료 시각까지 보관해 같은 토큰의 재검증(파싱, HMAC)을 생략한다. null 이면 사용하지 않는다
+    private final Cache<Long, VerifiedToken> verifiedTokenCache;
+
+    public JwtProvider(String secret, String serverAddress, long expirationSeconds) {
+        this(secret, serverAddress, expirationSeconds, 0);
+    }
+
+    public JwtProvider(String secret, String serverAddress, long expirationSeconds, long verifiedCacheMaxSize) {
+        this(secret, serverAddress, expirationSeconds, verifiedCacheMaxSize, FORMAT_JWT);
+    }
 
+    @Autowired
     public JwtProvider(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.server-address}") String serverAddress,
-            @Value("${jwt.expiration-seconds}") long expirationSeconds
+            @Value("${jwt.expiration-seconds}") long expirationSeconds,
+            @Value("${jwt.verified-cache.max-size:100000}") long verifiedCacheMaxSize,
+            @Value("${jwt.token-format:jwt}") String tokenFormat
     ) {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
         this.serverIdentifier = generateServerIdentifier(serverAddress, secret);
         this.expirationSeconds = expirationSeconds;
-        this.jwtParser = Jwts.parser().verifyWith(key).build();
+        this.jwtCodec = new JwtTokenCodec(Keys.hmacShaKeyFor(secretBytes), serverIdentifier);
+        this.binaryCodec = new BinaryTokenCodec(secretBytes, serverIdentifier);
+        this.issuingCodec = switch (tokenFormat) {
+            case FORMAT_JWT -> jwtCodec;
+            case FORMAT_BINARY -> binaryCodec;
+            default -> throw new IllegalArgumentException("Unknown token format: " + tokenFormat);
+        };
+        this.verifiedTokenCache = verifiedCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new VerifiedTokenExpiry())
+                .recordStats()
+                .build()
+                : null;
     }
 
+    // 문자열 주소만 가진 호출자용. 요청 경로에서는 이미 파싱한 IpAddress 를 받는 쪽을 쓴다
     public String generateToken(String ipAddress, String regionCode) {
-        Instant now = Instant.now();
-
-        TokenClaims claims = TokenClaims.builder()
-                .id(UUID.randomUUID().toString())
-                .issuer(serverIdentifier)
-                .ipAddress(ipAddress)
-                .regionCode(regionCode)
-                .issuedAt(now.getEpochSecond())
-                .notBefore(now.minusSeconds(600).getEpochSecond())
-                .expiresAt(now.plusSeconds(expirationSeconds).getEpochSecond())
-                .build();
-
-        return Jwts.builder()
-                .id(claims.id())
-                .issuer(claims.issuer())
-                .audience().add(claims.ipAddress()).and()
-                .subject(claims.regionCode())
-                .issuedAt(Date.from(Instant.ofEpochSecond(claims.issuedAt())))
-                .notBefore(Date.from(Instant.ofEpochSecond(claims.notBefore())))
-                .expiration(Date.from(Instant.ofEpochSecond(claims.expiresAt())))
-                .signWith(key)
-                .compact();
+        IpAddress address = IpAddress.parse(ipAddress);
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid IP address: " + ipAddress);
+        }
+        return generateToken(address, regionCode);
+    }
+
+    public String generateToken(IpAddress address, String regionCode) {
+        long issuedAt = Instant.now().getEpochSecond();
+        long expiresAt = issuedAt + expirationSeconds;
+
+        String token = issuingCodec.issue(address, regionCode, issuedAt, expiresAt);
+        if (token == null) {
+            // 바이너리 형식에 담을 수 없는 지역 코드나 주소는 JWT 로 발급한다
+            token = jwtCodec.issue(address, regionCode, issuedAt, expiresAt);
+        }
+        return token;
     }
 
     public TokenClaims validateToken(String token, String ipAddress) {
-        try {
-            Claims claims = jwtParser
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            // Validate issuer and audience
-            if (!claims.getIssuer().equals(serverIdentifier) ||
-                    !claims.getAudience().contains(ipAddress)) {
-                throw new JwtException.InvalidTokenException("Invalid token claims");
+        IpAddress address = IpAddress.parse(ipAddress);
+        if (address == null) {
+            throw new JwtException.InvalidTokenException("Invalid token claims");
+        }
+        return validateToken(token, address);
+    }
+
+    public TokenClaims validateToken(String token, IpAddress address) {
+        if (verifiedTokenCache == null) {
+            return parseAndVerify(token, address);
+        }
+        long fingerprint = fingerprint(token, address);
+        VerifiedToken cached = verifiedTokenCache.getIfPresent(fingerprint);
+        if (cached != null && cached.matches(token, address)) {
+            // 만료 판정은 JJWT 와 같다. 만료됐으면 다시 파싱해 ExpiredJwtException 을 던지게 한다
+            if (System.currentTimeMillis() <= cached.expiresAtMillis()) {
+                return cached.claims();
             }
+            verifiedTokenCache.invalidate(fingerprint);
+        }
+        TokenClaims claims = parseAndVerify(token, address);
+        verifiedTokenCache.put(fingerprint, new VerifiedToken(token, address, claims));
+        return claims;
+    }
+
+    public CacheStats getVerifiedTokenCacheStats() {
+        return verifiedTokenCache == null ? CacheStats.empty() : verifiedTokenCache.stats();
+    }
+
+    public long getVerifiedTokenCacheSize() {
+        return verifiedTokenCache == null ? 0 : verifiedTokenCache.estimatedSize();
+    }
+
+    private TokenClaims parseAndVerify(String token, IpAddress address) {
+        TokenCodec codec = binaryCodec.supports(token) ? binaryCodec : jwtCodec;
+        return codec.verify(token, address);
+    }
 
-            return TokenClaims.builder()
-                    .id(claims.getId())
-                    .issuer(claims.getIssuer())
-                    .ipAddress(claims.getAudience().iterator().next())
-                    .regionCode(claims.getSubject())
-                    .issuedAt(claims.getIssuedAt().toInstant().getEpochSecond())
-                    .notBefore(claims.getNotBefore().toInstant().getEpochSecond())
-                    .expiresAt(claims.getExpiration().toInstant().getEpochSecond())
-                    .build();
-
-        } catch (ExpiredJwtException e) {
-            throw e;
-        } catch (SecurityException | MalformedJwtException | UnsupportedJwtException |
-                 IllegalArgumentException e) {
-            throw new JwtException.InvalidTokenException("Invalid JWT token", e);
+    // 토큰과 요청 IP 의 64비트 FNV-1a 해시. 충돌에 대비해 캐시 항목에 원문을 함께 두고 비교한다
+    private static long fingerprint(String token, IpAddress address) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash = (hash ^ token.charAt(i)) * 0x100000001b3L;
         }
+        hash = (hash ^ address.high()) * 0x100000001b3L;
+        hash = (hash ^ address.low()) * 0x100000001b3L;
+        return hash;
     }
 
     private String generateServerIdentifier(String serverAddress, String secret) {
@@ -93,4 +144,33 @@ public class JwtProvider {
                 (serverAddress + secret).getBytes(StandardCharsets.UTF_8)
         ).toString();
     }
-}
\ No newline at end of file
+
+    private record VerifiedToken(String token, IpAddress address, TokenClaims claims) {
+        boolean matches(String token, IpAddress address) {
+            return this.token.equals(token) && this.address.equals(address);
+        }
+
+        long expiresAtMillis() {
+            return claims.expiresAt() * 1000;
+        }
+    }
+
+    // 항목마다 토큰 만료 시각이 지나면 캐시에서 내보낸다
+    private static class VerifiedTokenExpiry implements Expiry<Long, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(Long key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dev.gunn96.popcat.security.jwt;
+
+import dev.gunn96.popcat.exception.JwtException;
+import dev.gunn96.popcat.util.IpAddress;
+import io.jsonwebtoken.*;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * JJWT 로 서명한 JWT 토큰. IP 는 aud, 지역 코드는 sub 에 담는다.
+ */
+public class JwtTokenCodec implements TokenCodec {
+    private final SecretKey key;
+    private final String issuer;
+    private final JwtParser jwtParser;
+
+    public JwtTokenCodec(SecretKey key, String issuer) {
+        this.key = key;
+        this.issuer = issuer;
+        this.jwtParser = Jwts.parser().verifyWith(key).build();
+    }
+
+    @Override
+    public String issue(IpAddress address, String regionCode, long issuedAt, long expiresAt) {
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .issuer(issuer)
+                .audience().add(address.toString()).and()
+                .subject(regionCode)
+                .issuedAt(Date.from(Instant.ofEpochSecond(issuedAt)))
+                .notBefore(Date.from(Instant.ofEpochSecond(issuedAt - NOT_BEFORE_SKEW_SECONDS)))
+                .expiration(Date.from(Instant.ofEpochSecond(expiresAt)))
+                .signWith(key)
+                .compact();
+    }
+
+    @Override
+    public TokenClaims verify(String token, IpAddress address) {
+        String ipAddress = address.toString();
+        try {
+            Claims claims = jwtParser
+                    .parseSignedClaims(token)
+                    .getPayload();
+
+            // Validate issuer and audience
+            if (!claims.getIssuer().equals(issuer) ||
+                    !claims.getAudience().contains(ipAddress)) {
+                throw new JwtException.InvalidTokenException("Invalid token claims");
+            }
+
+            return TokenClaims.builder()
+                    .id(claims.getId())
+                    .issuer(claims.getIssuer())
+                    .ipAddress(ipAddress)
+                    .address(address)
+                    .regionCode(claims.getSubject())
+                    .issuedAt(claims.getIssuedAt().toInstant().getEpochSecond())
+                    .notBefore(claims.getNotBefore().toInstant().getEpochSecond())
+                    .expiresAt(claims.getExpiration().toInstant().getEpochSecond())
+                    .build();
+
+        } catch (ExpiredJwtException e) {
+            throw e;
+        } catch (SecurityException | MalformedJwtException | UnsupportedJwtException |
+                 IllegalArgumentException e) {
+            throw new JwtException.InvalidTokenException("Invalid JWT token", e);
+        }
+    }
+
+    // JWT 는 header.payload.signature 형태다
+    @Override
+    public boolean supports(String token) {
+        return token.indexOf('.') >= 0;
+    }
+}
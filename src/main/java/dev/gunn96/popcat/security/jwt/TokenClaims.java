@@ -1,5 +1,6 @@
 package dev.gunn96.popcat.security.jwt;
 
+import dev.gunn96.popcat.util.IpAddress;
 import lombok.Builder;
 
 @Builder
@@ -7,6 +8,8 @@ public record TokenClaims(
         String id,
         String issuer,
         String ipAddress,
+        // 검증할 때 쓴 숫자 주소. 요청 처리 중에 다시 파싱하지 않도록 함께 넘긴다
+        IpAddress address,
         String regionCode,
         long issuedAt,
         long notBefore,
@@ -0,0 +1,37 @@
+package dev.gunn96.popcat.security.jwt;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * 컨트롤러의 TokenClaims 파라미터를 채운다.
+ * fast path 로 검증했으면 요청 속성에서, 아니면 SecurityContext 의 principal 에서 꺼낸다.
+ */
+public class TokenClaimsArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return TokenClaims.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object claims = webRequest.getAttribute(JwtAuthenticationFilter.TOKEN_CLAIMS_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (claims != null) {
+            return claims;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof TokenClaims principal) {
+            return principal;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package dev.gunn96.popcat.security.jwt;
+
+import dev.gunn96.popcat.util.IpAddress;
+
+/**
+ * 팝 토큰의 직렬화/서명 방식.
+ * 토큰에는 발급 서버, 클라이언트 IP, 지역 코드, 발급/유효 시작/만료 시각만 담긴다.
+ */
+public interface TokenCodec {
+    // 유효 시작 시각은 발급 시각보다 이만큼 앞선다
+    long NOT_BEFORE_SKEW_SECONDS = 600;
+
+    /**
+     * 토큰을 발급한다. 이 형식으로 담을 수 없는 값이면 null 을 반환한다.
+     */
+    String issue(IpAddress address, String regionCode, long issuedAt, long expiresAt);
+
+    /**
+     * 서명과 클레임을 검증한다.
+     *
+     * @throws io.jsonwebtoken.ExpiredJwtException 만료된 토큰인 경우
+     * @throws dev.gunn96.popcat.exception.JwtException.InvalidTokenException 그 밖에 유효하지 않은 토큰인 경우
+     */
+    TokenClaims verify(String token, IpAddress address);
+
+    /**
+     * 이 형식으로 만들어진 토큰인지 모양만 보고 판단한다.
+     */
+    boolean supports(String token);
+}
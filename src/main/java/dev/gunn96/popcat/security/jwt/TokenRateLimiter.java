@@ -0,0 +1,136 @@
+package dev.gunn96.popcat.security.jwt;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 토큰(jti) 별 요청 속도 제한. 같은 토큰은 구간(interval)마다 요청 한 번만 통과시킨다.
+ * 토큰을 한 번만 쓰게 하는 재전송 방어가 아니다. 구간이 지나면 같은 토큰을 다시 받으므로
+ * 가로챈 토큰도 구간마다 한 번씩은 쓸 수 있고, 토큰 하나로 보낼 수 있는 요청 속도만 제한한다.
+ * 구간마다 Bloom filter 버킷 하나를 쓰고 두 개를 번갈아 비워 가며 재사용하므로
+ * 살아 있는 토큰이 몇 개든 메모리는 버킷 크기로 고정된다.
+ * 기록은 현재 버킷에만 남기고 조회는 현재와 직전 버킷을 함께 보므로,
+ * 구간 경계 직전에 쓴 토큰도 경계를 넘자마자 다시 받지 않는다.
+ * Bloom filter 특성상 처음 쓰는 토큰을 이미 쓴 것으로 오판해 거절할 확률이
+ * 버킷 두 개를 합쳐 false-positive 비율의 두 배 정도 있다.
+ */
+public class TokenRateLimiter {
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int BUCKETS = 2;
+
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final int bitCount;
+    private final int hashCount;
+    private final long[][] buckets;
+    private final LongAdder rejected = new LongAdder();
+    private final ReentrantLock rotateLock = new ReentrantLock();
+    // 현재 버킷이 담당하는 구간 번호(= 시각 / intervalMillis)
+    private volatile long currentEpoch;
+
+    public TokenRateLimiter(boolean enabled, long intervalMillis, long expectedTokensPerInterval, double falsePositiveRate) {
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long expected = Math.max(expectedTokensPerInterval, 1);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(bits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        this.buckets = enabled ? new long[BUCKETS][(bitCount + Long.SIZE - 1) / Long.SIZE] : new long[BUCKETS][0];
+        this.currentEpoch = System.currentTimeMillis() / intervalMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 현재와 직전 구간에 쓴 적 없는 토큰이면 기록하고 true, 이미 쓴 토큰이면 false 를 반환한다.
+     */
+    public boolean tryAcquire(String tokenId) {
+        if (!enabled || tokenId == null) {
+            return true;
+        }
+        long epoch = advance(System.currentTimeMillis() / intervalMillis);
+        long[] bucket = buckets[(int) (epoch % BUCKETS)];
+        long[] previous = buckets[(int) ((epoch + 1) % BUCKETS)];
+
+        long hash = hash(tokenId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        boolean seen = true;
+        boolean seenBefore = true;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            long current = (long) BITS.getAndBitwiseOr(bucket, bit >>> 6, mask);
+            if ((current & mask) == 0) {
+                seen = false;
+            }
+            if (seenBefore && ((long) BITS.getOpaque(previous, bit >>> 6) & mask) == 0) {
+                seenBefore = false;
+            }
+        }
+        if (seen || seenBefore) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // 지금 쓴 토큰이 두 버킷에서 모두 빠질 때까지 남은 초. Retry-After 헤더에 쓴다
+    public long retryAfterSeconds() {
+        long remainingMillis = intervalMillis - System.currentTimeMillis() % intervalMillis + intervalMillis;
+        return Math.max(1, (remainingMillis + 999) / 1000);
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    // 다른 스레드가 이미 다음 구간으로 넘겼으면 그 구간을 기준으로 삼는다
+    private long advance(long epoch) {
+        if (epoch > currentEpoch) {
+            rotate(epoch);
+        }
+        return currentEpoch;
+    }
+
+    // 새 구간이 시작되면 그 구간에 쓸 버킷(두 구간 전 기록)을 비운다
+    private void rotate(long epoch) {
+        rotateLock.lock();
+        try {
+            long current = currentEpoch;
+            if (epoch <= current) {
+                return;
+            }
+            if (epoch - current >= BUCKETS) {
+                for (long[] bucket : buckets) {
+                    Arrays.fill(bucket, 0);
+                }
+            } else {
+                Arrays.fill(buckets[(int) (epoch % BUCKETS)], 0);
+            }
+            currentEpoch = epoch;
+        } finally {
+            rotateLock.unlock();
+        }
+    }
+
+    // FNV-1a 64 후 murmur3 fmix64 로 비트를 섞는다
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb53a9ed8ee1aL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
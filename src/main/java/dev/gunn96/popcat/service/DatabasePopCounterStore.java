@@ -0,0 +1,46 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.RegionPopEntity;
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import dev.gunn96.popcat.repository.RegionPopRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "popcat.counter-store", havingValue = "database", matchIfMissing = true)
+public class DatabasePopCounterStore implements PopCounterStore {
+    private final PopCountWriter popCountWriter;
+    private final PopWriteBuffer popWriteBuffer;
+    private final RegionPopRepository regionPopRepository;
+
+    @Override
+    public void addPop(String ipAddress, String regionCode, long delta) {
+        // write-behind 모드가 아니거나 버퍼가 가득 찬 경우 바로 DB에 반영
+        if (!popWriteBuffer.isEnabled() || !popWriteBuffer.add(ipAddress, regionCode, delta)) {
+            popCountWriter.addPop(ipAddress, regionCode, delta);
+        }
+    }
+
+    // write-behind 모드가 아니면 방문자/지역 델타를 하나의 트랜잭션으로 반영
+    @Override
+    public void addPops(Map<VisitorPopEntity.VisitorPopId, Long> deltas) {
+        if (popWriteBuffer.isEnabled()) {
+            PopCounterStore.super.addPops(deltas);
+            return;
+        }
+        popCountWriter.addPops(deltas);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Long> findRegionCounts() {
+        return regionPopRepository.findAll().stream()
+                .collect(Collectors.toMap(RegionPopEntity::getRegionCode, RegionPopEntity::getCount));
+    }
+}
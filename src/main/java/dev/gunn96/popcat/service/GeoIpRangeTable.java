@@ -0,0 +1,307 @@
+package dev.gunn96.popcat.service;
+
+import com.maxmind.db.DatabaseRecord;
+import com.maxmind.db.MaxMindDbConstructor;
+import com.maxmind.db.MaxMindDbParameter;
+import com.maxmind.db.Network;
+import com.maxmind.db.Networks;
+import com.maxmind.db.Reader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Country mmdb 를 정렬된 구간 배열로 펼친 조회 테이블.
+ * 구간 시작 주소와 국가 코드 인덱스만 primitive 배열로 들고 있어 조회는 이진 탐색 한 번이고 할당이 없다.
+ * 시작 주소는 부호 비트를 뒤집어 저장해 unsigned 비교를 signed 비교로 처리한다.
+ */
+public final class GeoIpRangeTable {
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private static final short UNKNOWN_INDEX = 0;
+    private static final int IPV4_SIGN_FLIP = Integer.MIN_VALUE;
+    private static final long IPV6_SIGN_FLIP = Long.MIN_VALUE;
+
+    private final String[] codes;
+    private final int[] ipv4Starts;
+    private final short[] ipv4Codes;
+    private final long[] ipv6StartHigh;
+    private final long[] ipv6StartLow;
+    private final short[] ipv6Codes;
+
+    private GeoIpRangeTable(String[] codes, int[] ipv4Starts, short[] ipv4Codes,
+                            long[] ipv6StartHigh, long[] ipv6StartLow, short[] ipv6Codes) {
+        this.codes = codes;
+        this.ipv4Starts = ipv4Starts;
+        this.ipv4Codes = ipv4Codes;
+        this.ipv6StartHigh = ipv6StartHigh;
+        this.ipv6StartLow = ipv6StartLow;
+        this.ipv6Codes = ipv6Codes;
+    }
+
+    public static GeoIpRangeTable fromDatabase(Reader reader) throws IOException {
+        Builder builder = new Builder();
+        Networks<CountryRecord> networks = reader.networks(CountryRecord.class);
+        while (networks.hasNext()) {
+            DatabaseRecord<CountryRecord> record = networks.next();
+            Network network = record.getNetwork();
+            builder.add(network.getNetworkAddress().getAddress(), network.getPrefixLength(),
+                    record.getData() == null ? null : record.getData().isoCode());
+        }
+        return builder.build();
+    }
+
+    public String lookup(byte[] address) {
+        if (address.length == 4) {
+            return lookupIpv4(toInt(address, 0));
+        }
+        return lookup(toLong(address, 0), toLong(address, 8));
+    }
+
+    /**
+     * IPv6 주소를 조회한다. IPv4 를 담은 주소는 MaxMind reader 와 같은 규칙으로 IPv4 구간에서 찾는다.
+     */
+    public String lookup(long high, long low) {
+        // ::a.b.c.d, ::ffff:a.b.c.d
+        if (high == 0 && (low >>> 48) == 0 && ((low >>> 32) == 0 || (low >>> 32) == 0xFFFFL)) {
+            return lookupIpv4((int) low);
+        }
+        // MaxMind DB 는 Teredo(2001::/32)와 6to4(2002::/16)를 IPv4 트리의 별칭으로 둔다
+        if ((high >>> 32) == 0x20010000L) {
+            return lookupIpv4((int) high);
+        }
+        if ((high >>> 48) == 0x2002L) {
+            return lookupIpv4((int) (high >>> 16));
+        }
+        return lookupIpv6(high, low);
+    }
+
+    public String lookupIpv4(int address) {
+        int key = address ^ IPV4_SIGN_FLIP;
+        int low = 0;
+        int high = ipv4Starts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (ipv4Starts[mid] <= key) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return codes[ipv4Codes[low]];
+    }
+
+    public String lookupIpv6(long high, long low) {
+        long keyHigh = high ^ IPV6_SIGN_FLIP;
+        long keyLow = low ^ IPV6_SIGN_FLIP;
+        int from = 0;
+        int to = ipv6StartHigh.length - 1;
+        while (from < to) {
+            int mid = (from + to + 1) >>> 1;
+            long midHigh = ipv6StartHigh[mid];
+            if (midHigh < keyHigh || (midHigh == keyHigh && ipv6StartLow[mid] <= keyLow)) {
+                from = mid;
+            } else {
+                to = mid - 1;
+            }
+        }
+        return codes[ipv6Codes[from]];
+    }
+
+    public int ipv4RangeCount() {
+        return ipv4Starts.length;
+    }
+
+    public int ipv6RangeCount() {
+        return ipv6StartHigh.length;
+    }
+
+    private static int toInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24
+                | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8
+                | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (bytes[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    /**
+     * mmdb 순회 순서(주소 오름차순)대로 네트워크를 받아 구간을 만든다.
+     * 빈 주소 구간은 UNKNOWN 으로 채우고, 인접한 같은 국가 구간은 하나로 합친다.
+     */
+    static final class Builder {
+        private final List<String> codes = new ArrayList<>(List.of(UNKNOWN));
+        private final Map<String, Short> codeIndexes = new HashMap<>(Map.of(UNKNOWN, UNKNOWN_INDEX));
+
+        private int[] ipv4Starts = new int[1024];
+        private short[] ipv4Codes = new short[1024];
+        private int ipv4Size;
+        // 다음에 올 수 있는 가장 작은 주소. 2^32 이면 IPv4 공간을 모두 채운 것이다
+        private long ipv4Next;
+
+        private long[] ipv6High = new long[1024];
+        private long[] ipv6Low = new long[1024];
+        private short[] ipv6Codes = new short[1024];
+        private int ipv6Size;
+        private long ipv6NextHigh;
+        private long ipv6NextLow;
+        private boolean ipv6Exhausted;
+
+        Builder add(byte[] networkAddress, int prefixLength, String isoCode) {
+            short code = indexOf(isoCode);
+            if (networkAddress.length == 4) {
+                addIpv4(toInt(networkAddress, 0), prefixLength, code);
+            } else if (prefixLength >= 96 && isIpv4Compatible(networkAddress)) {
+                // IPv6 DB 의 ::/96 하위 트리는 IPv4 주소 공간이다
+                addIpv4(toInt(networkAddress, 12), prefixLength - 96, code);
+            } else {
+                addIpv6(toLong(networkAddress, 0), toLong(networkAddress, 8), prefixLength, code);
+            }
+            return this;
+        }
+
+        GeoIpRangeTable build() {
+            if (ipv4Size == 0 || ipv4Next < (1L << 32)) {
+                appendIpv4(ipv4Size == 0 ? 0 : (int) ipv4Next, UNKNOWN_INDEX);
+            }
+            if (ipv6Size == 0 || !ipv6Exhausted) {
+                appendIpv6(ipv6Size == 0 ? 0 : ipv6NextHigh, ipv6Size == 0 ? 0 : ipv6NextLow, UNKNOWN_INDEX);
+            }
+            int[] flippedIpv4 = new int[ipv4Size];
+            for (int i = 0; i < ipv4Size; i++) {
+                flippedIpv4[i] = ipv4Starts[i] ^ IPV4_SIGN_FLIP;
+            }
+            long[] flippedHigh = new long[ipv6Size];
+            long[] flippedLow = new long[ipv6Size];
+            for (int i = 0; i < ipv6Size; i++) {
+                flippedHigh[i] = ipv6High[i] ^ IPV6_SIGN_FLIP;
+                flippedLow[i] = ipv6Low[i] ^ IPV6_SIGN_FLIP;
+            }
+            return new GeoIpRangeTable(codes.toArray(String[]::new),
+                    flippedIpv4, Arrays.copyOf(ipv4Codes, ipv4Size),
+                    flippedHigh, flippedLow, Arrays.copyOf(ipv6Codes, ipv6Size));
+        }
+
+        private void addIpv4(int start, int prefixLength, short code) {
+            long unsignedStart = start & 0xFFFFFFFFL;
+            if (unsignedStart < ipv4Next) {
+                throw new IllegalStateException("IPv4 networks are not in ascending order");
+            }
+            if (unsignedStart > ipv4Next) {
+                appendIpv4((int) ipv4Next, UNKNOWN_INDEX);
+            }
+            appendIpv4(start, code);
+            ipv4Next = unsignedStart + (1L << (32 - prefixLength));
+        }
+
+        private void appendIpv4(int start, short code) {
+            if (ipv4Size > 0 && ipv4Codes[ipv4Size - 1] == code) {
+                return;
+            }
+            if (ipv4Size == ipv4Starts.length) {
+                ipv4Starts = Arrays.copyOf(ipv4Starts, ipv4Size * 2);
+                ipv4Codes = Arrays.copyOf(ipv4Codes, ipv4Size * 2);
+            }
+            ipv4Starts[ipv4Size] = start;
+            ipv4Codes[ipv4Size] = code;
+            ipv4Size++;
+        }
+
+        private void addIpv6(long high, long low, int prefixLength, short code) {
+            if (ipv6Exhausted || Long.compareUnsigned(high, ipv6NextHigh) < 0
+                    || (high == ipv6NextHigh && Long.compareUnsigned(low, ipv6NextLow) < 0)) {
+                throw new IllegalStateException("IPv6 networks are not in ascending order");
+            }
+            if (high != ipv6NextHigh || low != ipv6NextLow) {
+                appendIpv6(ipv6NextHigh, ipv6NextLow, UNKNOWN_INDEX);
+            }
+            appendIpv6(high, low, code);
+
+            // 구간 끝 다음 주소 = 시작 + 2^(128 - prefix). unsigned overflow 면 주소 공간 끝까지 채운 것이다
+            int hostBits = 128 - prefixLength;
+            long nextHigh = high;
+            long nextLow = low;
+            if (hostBits == 128) {
+                ipv6Exhausted = true;
+            } else if (hostBits >= 64) {
+                nextHigh = high + (1L << (hostBits - 64));
+                nextLow = 0;
+                ipv6Exhausted = Long.compareUnsigned(nextHigh, high) < 0;
+            } else {
+                nextLow = low + (1L << hostBits);
+                if (Long.compareUnsigned(nextLow, low) < 0) {
+                    nextHigh = high + 1;
+                    ipv6Exhausted = nextHigh == 0;
+                }
+            }
+            ipv6NextHigh = nextHigh;
+            ipv6NextLow = nextLow;
+        }
+
+        private void appendIpv6(long high, long low, short code) {
+            if (ipv6Size > 0 && ipv6Codes[ipv6Size - 1] == code) {
+                return;
+            }
+            if (ipv6Size == ipv6High.length) {
+                ipv6High = Arrays.copyOf(ipv6High, ipv6Size * 2);
+                ipv6Low = Arrays.copyOf(ipv6Low, ipv6Size * 2);
+                ipv6Codes = Arrays.copyOf(ipv6Codes, ipv6Size * 2);
+            }
+            ipv6High[ipv6Size] = high;
+            ipv6Low[ipv6Size] = low;
+            ipv6Codes[ipv6Size] = code;
+            ipv6Size++;
+        }
+
+        private short indexOf(String isoCode) {
+            if (isoCode == null) {
+                return UNKNOWN_INDEX;
+            }
+            return codeIndexes.computeIfAbsent(isoCode, code -> {
+                codes.add(code);
+                return (short) (codes.size() - 1);
+            });
+        }
+
+        private static boolean isIpv4Compatible(byte[] address) {
+            for (int i = 0; i < 12; i++) {
+                if (address[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public static final class CountryRecord {
+        private final String isoCode;
+
+        @MaxMindDbConstructor
+        public CountryRecord(@MaxMindDbParameter(name = "country") CountryEntry country) {
+            this.isoCode = country == null ? null : country.isoCode;
+        }
+
+        public String isoCode() {
+            return isoCode;
+        }
+    }
+
+    public static final class CountryEntry {
+        private final String isoCode;
+
+        @MaxMindDbConstructor
+        public CountryEntry(@MaxMindDbParameter(name = "iso_code") String isoCode) {
+            this.isoCode = isoCode;
+        }
+    }
+}
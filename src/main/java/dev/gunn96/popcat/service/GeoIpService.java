@@ -1,5 +1,10 @@
 package dev.gunn96.popcat.service;
 
+import dev.gunn96.popcat.util.IpAddress;
+
 public interface GeoIpService {
     String findRegionCodeByIpAddress(String ipAddress);
+
+    // 이미 파싱한 주소는 다시 파싱하지 않고 조회한다
+    String findRegionCode(IpAddress ipAddress);
 }
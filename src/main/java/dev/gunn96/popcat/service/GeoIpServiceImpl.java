@@ -1,9 +1,14 @@
 package dev.gunn96.popcat.service;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.maxmind.db.Reader;
 import com.maxmind.geoip2.DatabaseReader;
 import com.maxmind.geoip2.exception.GeoIp2Exception;
 import dev.gunn96.popcat.exception.GeoIpException;
+import dev.gunn96.popcat.util.IpAddress;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
@@ -13,55 +18,246 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class GeoIpServiceImpl implements GeoIpService {
     private static final String UNKNOWN = "UNKNOWN";
+    // IPv6 /48 키(48비트)와 겹치지 않도록 IPv4 /24 키에 붙이는 표시 비트
+    private static final long IPV4_PREFIX_MARKER = 1L << 48;
 
     @Value("${geoip.database.path}")
     private String databasePath;
 
+    // 파일 모드일 때 DB 파일 교체를 감지해 reader 를 다시 만든다
+    @Value("${geoip.database.watch:true}")
+    private boolean watchEnabled;
+
+    // 파일 쓰기가 끝날 때까지 기다리는 시간
+    @Value("${geoip.database.reload-delay-ms:1000}")
+    private long reloadDelayMillis;
+
+    // 0 이면 캐시를 사용하지 않는다
+    @Value("${geoip.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    @Value("${geoip.cache.ttl-seconds:3600}")
+    private long cacheTtlSeconds;
+
+    // 시작/리로드 때 DB 를 구간 배열로 펼쳐 두고 이진 탐색으로 조회한다
+    @Value("${geoip.range-table.enabled:false}")
+    private boolean rangeTableEnabled;
+
     private final ResourceLoader resourceLoader;
-    private DatabaseReader reader;
+    private volatile DatabaseReader reader;
+    private volatile GeoIpRangeTable rangeTable;
+    // IP 대역(/24, /48)별 국가 코드 캐시. 같은 대역은 같은 국가라고 보고 DB 조회를 생략한다
+    private Cache<Long, String> lookupCache;
+    // 교체된 reader 는 진행 중인 조회가 끝날 수 있도록 다음 교체 때 닫는다
+    private DatabaseReader retiredReader;
+    private WatchService watchService;
 
     @PostConstruct
     public void initialize() {
         initializeReader(databasePath);
+        if (cacheMaxSize > 0) {
+            lookupCache = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                    .recordStats()
+                    .build();
+        }
     }
 
     public String findRegionCodeByIpAddress(String ipAddress) {
+        IpAddress address = IpAddress.parse(ipAddress);
+        if (address == null) {
+            throw new GeoIpException.InvalidIpAddressException(ipAddress);
+        }
+        return findRegionCode(address);
+    }
+
+    public String findRegionCode(IpAddress address) {
+        GeoIpRangeTable table = rangeTable;
+        if (table != null) {
+            return address.isIpv4()
+                    ? table.lookupIpv4(address.ipv4Value())
+                    : table.lookup(address.high(), address.low());
+        }
+        if (lookupCache == null) {
+            return lookupRegionCode(address);
+        }
+        return lookupCache.get(prefixKey(address), key -> lookupRegionCode(address));
+    }
+
+    // 히트/미스/eviction 카운터. 캐시를 사용하지 않으면 빈 통계를 반환한다
+    public CacheStats getLookupCacheStats() {
+        return lookupCache == null ? CacheStats.empty() : lookupCache.stats();
+    }
+
+    public long getLookupCacheSize() {
+        return lookupCache == null ? 0 : lookupCache.estimatedSize();
+    }
+
+    private String lookupRegionCode(IpAddress address) {
         try {
-            InetAddress address = InetAddress.getByName(ipAddress);
-            return reader.tryCountry(address)
+            return reader.tryCountry(address.toInetAddress())
                     .map(response -> response.getCountry().getIsoCode())
                     .orElse(UNKNOWN);
-        } catch (UnknownHostException e) {
-            throw new GeoIpException.InvalidIpAddressException(ipAddress, e);
         } catch (IOException | GeoIp2Exception e) {
-            throw new GeoIpException.DatabaseLookupException(ipAddress, e);
+            throw new GeoIpException.DatabaseLookupException(address.toString(), e);
         }
     }
 
+    // IPv4 는 /24, IPv6 는 /48 대역을 키로 사용한다
+    private static long prefixKey(IpAddress address) {
+        if (address.isIpv4()) {
+            return IPV4_PREFIX_MARKER | (address.ipv4Value() >>> 8);
+        }
+        return address.high() >>> 16;
+    }
+
     private void initializeReader(String path) {
         try {
             Resource resource = resourceLoader.getResource(path);
+            if (resource.isFile()) {
+                File file = resource.getFile();
+                reader = openMemoryMapped(file);
+                log.info("GeoIP database loaded in memory-mapped mode: {}", file);
+                rangeTable = buildRangeTable(file);
+                if (watchEnabled) {
+                    startWatcher(file.toPath().toAbsolutePath());
+                }
+                return;
+            }
+            // jar 내부 리소스처럼 파일이 아니면 힙으로 읽어들인다
             try (InputStream inputStream = resource.getInputStream()) {
                 reader = new DatabaseReader.Builder(inputStream).build();
             }
+            if (rangeTableEnabled) {
+                try (InputStream inputStream = resource.getInputStream()) {
+                    rangeTable = buildRangeTable(new Reader(inputStream));
+                }
+            }
         } catch (IOException e) {
             throw new GeoIpException.DatabaseInitializationException(e);
         }
     }
 
+    private DatabaseReader openMemoryMapped(File file) throws IOException {
+        return new DatabaseReader.Builder(file)
+                .fileMode(Reader.FileMode.MEMORY_MAPPED)
+                .build();
+    }
+
+    private GeoIpRangeTable buildRangeTable(File file) throws IOException {
+        if (!rangeTableEnabled) {
+            return null;
+        }
+        return buildRangeTable(new Reader(file, Reader.FileMode.MEMORY_MAPPED));
+    }
+
+    // 실패하면 null 을 반환해 MaxMind reader 로 조회한다
+    private GeoIpRangeTable buildRangeTable(Reader databaseReader) {
+        long startedAt = System.nanoTime();
+        try (databaseReader) {
+            GeoIpRangeTable table = GeoIpRangeTable.fromDatabase(databaseReader);
+            log.info("GeoIP range table built: {} IPv4 ranges, {} IPv6 ranges in {} ms",
+                    table.ipv4RangeCount(), table.ipv6RangeCount(), (System.nanoTime() - startedAt) / 1_000_000);
+            return table;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to build GeoIP range table, falling back to the database reader", e);
+            return null;
+        }
+    }
+
+    private void startWatcher(Path databaseFile) throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        databaseFile.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(() -> watchDatabaseFile(databaseFile), "geoip-db-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    // DB 파일은 새 파일을 쓴 뒤 rename 으로 교체해야 한다. 기존 mmap 은 이전 파일을 계속 참조한다
+    private void watchDatabaseFile(Path databaseFile) {
+        Path fileName = databaseFile.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    Thread.sleep(reloadDelayMillis);
+                    reload(databaseFile.toFile());
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("GeoIP database watcher stopped");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reload(File file) {
+        try {
+            DatabaseReader reloaded = openMemoryMapped(file);
+            GeoIpRangeTable reloadedTable = buildRangeTable(file);
+            DatabaseReader previous = reader;
+            reader = reloaded;
+            rangeTable = reloadedTable;
+            closeQuietly(retiredReader);
+            retiredReader = previous;
+            if (lookupCache != null) {
+                lookupCache.invalidateAll();
+            }
+            log.info("GeoIP database reloaded: {} (build {})", file, reloaded.getMetadata().getBuildDate());
+        } catch (IOException e) {
+            log.error("Failed to reload GeoIP database, keeping the current one: {}", file, e);
+        }
+    }
+
+    private void closeQuietly(DatabaseReader databaseReader) {
+        if (databaseReader == null) {
+            return;
+        }
+        try {
+            databaseReader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close retired GeoIP database reader", e);
+        }
+    }
+
 
     @PreDestroy
     public void cleanup() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Failed to close GeoIP database watcher", e);
+            }
+        }
+        closeQuietly(retiredReader);
         if (reader != null) {
             try {
                 reader.close();
@@ -70,4 +266,4 @@ public class GeoIpServiceImpl implements GeoIpService {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package dev.gunn96.popcat.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 스냅샷 버전마다 카운트가 바뀐 지역 코드를 최근 capacity 개만 보관하는 링 버퍼.
+ * 스냅샷 버전은 1씩 증가하므로 보관 중인 항목은 항상 연속된 버전이다.
+ */
+class LeaderboardChangeLog {
+    private final long[] versions;
+    private final String[][] changedRegions;
+    private int next;
+    private int size;
+
+    LeaderboardChangeLog(int capacity) {
+        this.versions = new long[capacity];
+        this.changedRegions = new String[capacity][];
+    }
+
+    synchronized void append(long version, Collection<String> regionCodes) {
+        versions[next] = version;
+        changedRegions[next] = regionCodes.toArray(String[]::new);
+        next = (next + 1) % versions.length;
+        size = Math.min(size + 1, versions.length);
+    }
+
+    // since 초과 upTo 이하 버전에서 바뀐 지역 코드. 링에 남아 있지 않은 구간이면 null 을 반환한다
+    synchronized Set<String> changedBetween(long since, long upTo) {
+        if (since == upTo) {
+            return Set.of();
+        }
+        if (since > upTo || size == 0 || since + 1 < oldestVersion()) {
+            return null;
+        }
+        Set<String> regionCodes = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            int slot = (next - 1 - i + versions.length) % versions.length;
+            long version = versions[slot];
+            if (version <= since) {
+                break;
+            }
+            if (version <= upTo) {
+                regionCodes.addAll(Set.of(changedRegions[slot]));
+            }
+        }
+        return regionCodes;
+    }
+
+    private long oldestVersion() {
+        return versions[(next - size + versions.length) % versions.length];
+    }
+}
@@ -1,7 +1,18 @@
 package dev.gunn96.popcat.service;
 
+import dev.gunn96.popcat.domain.LeaderboardSnapshot;
+import dev.gunn96.popcat.dto.response.LeaderboardDeltaResponse;
 import dev.gunn96.popcat.dto.response.LeaderboardResponse;
+import dev.gunn96.popcat.dto.response.RegionRankResponse;
 
 public interface LeaderboardService {
     LeaderboardResponse getLeaderboard();
+
+    LeaderboardSnapshot getSnapshot();
+
+    LeaderboardDeltaResponse getLeaderboardSince(long version);
+
+    LeaderboardResponse getTopRegions(int offset, int limit);
+
+    RegionRankResponse getRegionRank(String regionCode);
 }
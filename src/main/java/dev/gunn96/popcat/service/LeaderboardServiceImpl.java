@@ -1,46 +1,260 @@
 package dev.gunn96.popcat.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gunn96.popcat.common.ApiResponse;
+import dev.gunn96.popcat.domain.LeaderboardSnapshot;
+import dev.gunn96.popcat.domain.RegionRanking;
+import dev.gunn96.popcat.dto.response.LeaderboardDeltaResponse;
 import dev.gunn96.popcat.dto.response.LeaderboardResponse;
 import dev.gunn96.popcat.dto.response.RegionPopResponse;
+import dev.gunn96.popcat.dto.response.RegionRankResponse;
 import dev.gunn96.popcat.entity.RegionPopEntity;
+import dev.gunn96.popcat.exception.LeaderboardException;
 import dev.gunn96.popcat.repository.RegionPopRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class LeaderboardServiceImpl implements LeaderboardService {
+    private static final String DATABASE_RANKING_SOURCE = "database";
+
+    private final PopCounterStore popCounterStore;
+    private final RegionCounterRegistry regionCounterRegistry;
     private final RegionPopRepository regionPopRepository;
+    private final ObjectMapper objectMapper;
+    private final LeaderboardChangeLog changeLog;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @Value("${popcat.leaderboard.max-staleness-ms:5000}")
+    private long maxStalenessMillis;
+
+    @Value("${popcat.leaderboard.max-page-size:300}")
+    private int maxPageSize;
+
+    // database 이면 페이지/순위 조회를 스냅샷 대신 DB 인덱스로 처리한다 (snapshot | database)
+    @Value("${popcat.leaderboard.ranking-source:snapshot}")
+    private String rankingSource;
+
+    private volatile LeaderboardSnapshot snapshot;
+
+    public LeaderboardServiceImpl(
+            PopCounterStore popCounterStore,
+            RegionCounterRegistry regionCounterRegistry,
+            RegionPopRepository regionPopRepository,
+            ObjectMapper objectMapper,
+            @Value("${popcat.leaderboard.change-log-size:64}") int changeLogSize
+    ) {
+        this.popCounterStore = popCounterStore;
+        this.regionCounterRegistry = regionCounterRegistry;
+        this.regionPopRepository = regionPopRepository;
+        this.objectMapper = objectMapper;
+        this.changeLog = new LeaderboardChangeLog(changeLogSize);
+    }
 
     @Override
     public LeaderboardResponse getLeaderboard() {
-        List<RegionPopEntity> regionPops = regionPopRepository.findAll();
-        return createLeaderboardResponse(regionPops);
+        return getSnapshot().response();
+    }
+
+    @Override
+    public LeaderboardSnapshot getSnapshot() {
+        LeaderboardSnapshot current = snapshot;
+        if (current != null && !isStale(current)) {
+            return current;
+        }
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            // 다른 스레드가 갱신 중이면 기다리지 않고 기존 스냅샷을 사용한다
+            return current;
+        }
+        try {
+            // 락을 기다리는 동안 다른 스레드가 이미 갱신했다면 다시 만들지 않는다
+            LeaderboardSnapshot latest = snapshot;
+            if (latest != null && !isStale(latest)) {
+                return latest;
+            }
+            return rebuild();
+        } finally {
+            refreshLock.unlock();
+        }
     }
 
-    private LeaderboardResponse createLeaderboardResponse(List<RegionPopEntity> regionPops) {
-        return LeaderboardResponse.builder()
-                .globalSum(calculateGlobalSum(regionPops))
-                .rankingList(createSortedRankingList(regionPops))
+    // since 이후 바뀐 지역만 반환한다. 변경 이력이 남아 있지 않은 버전이면 전체를 반환한다
+    @Override
+    public LeaderboardDeltaResponse getLeaderboardSince(long version) {
+        LeaderboardSnapshot current = getSnapshot();
+        Set<String> changedRegionCodes = changeLog.changedBetween(version, current.version());
+        if (changedRegionCodes == null) {
+            return current.toFullResponse();
+        }
+        List<RegionPopResponse> regions = changedRegionCodes.stream()
+                .map(regionCode -> new RegionPopResponse(regionCode,
+                        current.regionCounts().getOrDefault(regionCode, 0L)))
+                .toList();
+        return new LeaderboardDeltaResponse(current.version(), current.response().getGlobalSum(), false, regions);
+    }
+
+    @Override
+    public LeaderboardResponse getTopRegions(int offset, int limit) {
+        int validLimit = Math.min(Math.max(limit, 0), maxPageSize);
+        int validOffset = Math.max(offset, 0);
+        if (DATABASE_RANKING_SOURCE.equals(rankingSource)) {
+            List<RegionPopResponse> regions = regionPopRepository.findTopByCount(validLimit, validOffset).stream()
+                    .map(this::toRegionPopResponse)
+                    .toList();
+            return new LeaderboardResponse(regionPopRepository.sumCount(), regions);
+        }
+        LeaderboardSnapshot current = getSnapshot();
+        return new LeaderboardResponse(current.response().getGlobalSum(),
+                current.ranking().page(validOffset, validLimit));
+    }
+
+    @Override
+    public RegionRankResponse getRegionRank(String regionCode) {
+        if (DATABASE_RANKING_SOURCE.equals(rankingSource)) {
+            return getRegionRankFromDatabase(regionCode);
+        }
+        LeaderboardSnapshot current = getSnapshot();
+        Long count = current.regionCounts().get(regionCode);
+        if (count == null) {
+            throw new LeaderboardException.RegionNotFoundException(regionCode);
+        }
+        RegionRanking ranking = current.ranking();
+        int index = ranking.indexOf(regionCode, count);
+        return RegionRankResponse.builder()
+                .regionCode(regionCode)
+                .count(count)
+                .rank(ranking.rankOf(count))
+                .above(index > 0 ? ranking.get(index - 1) : null)
+                .below(index + 1 < ranking.size() ? ranking.get(index + 1) : null)
                 .build();
     }
 
-    private long calculateGlobalSum(List<RegionPopEntity> regionPops) {
-        return regionPops.stream().mapToLong(RegionPopEntity::getCount).sum();
+    // DB 조회 경로. 모두 idx_region_pops_count 인덱스 범위 탐색으로 처리된다
+    private RegionRankResponse getRegionRankFromDatabase(String regionCode) {
+        RegionPopEntity regionPop = regionPopRepository.findById(regionCode)
+                .orElseThrow(() -> new LeaderboardException.RegionNotFoundException(regionCode));
+        long count = regionPop.getCount();
+        return RegionRankResponse.builder()
+                .regionCode(regionCode)
+                .count(count)
+                .rank(regionPopRepository.countByCountGreaterThan(count) + 1)
+                .above(regionPopRepository.findAbove(regionCode, count)
+                        .map(this::toRegionPopResponse).orElse(null))
+                .below(regionPopRepository.findBelow(regionCode, count)
+                        .map(this::toRegionPopResponse).orElse(null))
+                .build();
     }
 
-    private List<RegionPopResponse> createSortedRankingList(List<RegionPopEntity> regionPops) {
-        return regionPops.stream().map(entity -> RegionPopResponse.builder()
-                        .regionCode(entity.getRegionCode())
-                        .count(entity.getCount())
-                        .build())
-                .sorted(Comparator.comparingLong(RegionPopResponse::getCount).reversed())
-                .collect(Collectors.toList());
+    @Scheduled(fixedDelayString = "${popcat.leaderboard.refresh-interval-ms:1000}")
+    public void refreshSnapshot() {
+        refreshLock.lock();
+        try {
+            rebuild();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // refreshLock 을 잡은 상태에서만 호출한다
+    private LeaderboardSnapshot rebuild() {
+        LeaderboardSnapshot previous = snapshot;
+        long now = System.currentTimeMillis();
+        // 실시간 카운터가 켜져 있으면 DB를 거치지 않는다
+        Map<String, Long> regionCounts = Map.copyOf(regionCounterRegistry.isEnabled()
+                ? regionCounterRegistry.snapshot()
+                : popCounterStore.findRegionCounts());
+
+        LeaderboardSnapshot rebuilt;
+        if (previous == null) {
+            // 재시작 후에도 이전 ETag 와 겹치지 않도록 첫 버전은 현재 시각에서 시작한다
+            rebuilt = createSnapshot(now, now, regionCounts, RegionRanking.of(regionCounts));
+        } else {
+            List<String> changedRegionCodes = findChangedRegionCodes(previous.regionCounts(), regionCounts);
+            if (changedRegionCodes.isEmpty()) {
+                rebuilt = previous.touch(now);
+            } else {
+                long version = previous.version() + 1;
+                RegionRanking ranking = previous.ranking().update(regionCounts, changedRegionCodes);
+                rebuilt = createSnapshot(version, now, regionCounts, ranking);
+                changeLog.append(version, changedRegionCodes);
+                log.debug("Leaderboard snapshot rebuilt. version: {}, changed regions: {}",
+                        version, changedRegionCodes.size());
+            }
+        }
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    private boolean isStale(LeaderboardSnapshot snapshot) {
+        return System.currentTimeMillis() - snapshot.createdAtMillis() > maxStalenessMillis;
+    }
+
+    // 카운트가 바뀌었거나 새로 생기거나 사라진 지역 코드
+    private static List<String> findChangedRegionCodes(Map<String, Long> previous, Map<String, Long> current) {
+        List<String> changed = new ArrayList<>();
+        current.forEach((regionCode, count) -> {
+            if (!count.equals(previous.get(regionCode))) {
+                changed.add(regionCode);
+            }
+        });
+        previous.keySet().stream()
+                .filter(regionCode -> !current.containsKey(regionCode))
+                .forEach(changed::add);
+        return changed;
+    }
+
+    private LeaderboardSnapshot createSnapshot(long version, long createdAtMillis,
+                                               Map<String, Long> regionCounts, RegionRanking ranking) {
+        LeaderboardResponse response = LeaderboardResponse.builder()
+                .globalSum(calculateGlobalSum(regionCounts))
+                .rankingList(ranking.asList())
+                .build();
+        byte[] json = serialize(response);
+        return new LeaderboardSnapshot(version, createdAtMillis, response, regionCounts, ranking, json, gzip(json));
+    }
+
+    private byte[] serialize(LeaderboardResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponse.success(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize leaderboard", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private long calculateGlobalSum(Map<String, Long> regionCounts) {
+        return regionCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private RegionPopResponse toRegionPopResponse(RegionPopEntity entity) {
+        return RegionPopResponse.builder()
+                .regionCode(entity.getRegionCode())
+                .count(entity.getCount())
+                .build();
     }
 }
@@ -0,0 +1,195 @@
+package dev.gunn96.popcat.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gunn96.popcat.domain.LeaderboardSnapshot;
+import dev.gunn96.popcat.dto.response.LeaderboardDeltaResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 리더보드 SSE 스트림.
+ * 하나의 producer 가 tick 마다 최신 스냅샷을 모든 구독자에게 전달하고, 구독자는 마지막으로 보낸 스냅샷 이후
+ * 바뀐 지역만 delta 이벤트로 받는다. 구독자마다 대기 중인 스냅샷은 최대 하나만 유지하므로
+ * 느린 클라이언트는 중간 업데이트를 건너뛰고 합쳐진 delta 를 받으며, 연결당 메모리는 일정하다.
+ */
+@Slf4j
+@Service
+public class LeaderboardStreamService {
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "delta";
+
+    private final LeaderboardService leaderboardService;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+    private final ExecutorService senderExecutor;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // 직전 tick 대비 delta 는 대부분의 구독자가 공유하므로 한 번만 직렬화한다
+    private volatile SharedFrame latestFrame;
+    private volatile LeaderboardSnapshot lastPublished;
+
+    public LeaderboardStreamService(
+            LeaderboardService leaderboardService,
+            ObjectMapper objectMapper,
+            @Value("${popcat.leaderboard.stream.timeout-ms:1800000}") long emitterTimeoutMillis,
+            @Value("${popcat.leaderboard.stream.sender-threads:4}") int senderThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.leaderboardService = leaderboardService;
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.senderExecutor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("leaderboard-sse-", 1).factory())
+                : newSenderPool(senderThreads);
+    }
+
+    // 느린 클라이언트에 쓰는 동안 스레드가 묶이므로 플랫폼 스레드는 고정 개수로 제한한다
+    private static ExecutorService newSenderPool(int senderThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = newEmitter();
+        LeaderboardSnapshot snapshot = leaderboardService.getSnapshot();
+        Subscriber subscriber = new Subscriber(emitter, snapshot);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(SNAPSHOT_EVENT)
+                    .id(Long.toString(snapshot.version()))
+                    .data(snapshot.toFullResponse(), MediaType.APPLICATION_JSON));
+            subscribers.add(subscriber);
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    // 테스트에서 전송을 가로챌 수 있도록 분리해 둔다
+    SseEmitter newEmitter() {
+        return new SseEmitter(emitterTimeoutMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${popcat.leaderboard.stream.tick-ms:1000}")
+    public void publish() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        LeaderboardSnapshot snapshot = leaderboardService.getSnapshot();
+        LeaderboardSnapshot previous = lastPublished;
+        if (previous != null && previous.version() == snapshot.version()) {
+            return;
+        }
+        if (previous != null) {
+            latestFrame = new SharedFrame(previous.version(), snapshot.version(),
+                    serialize(snapshot.toDeltaResponse(previous)));
+        }
+        lastPublished = snapshot;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(snapshot);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senderExecutor.shutdownNow();
+    }
+
+    private String serialize(LeaderboardDeltaResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize leaderboard delta", e);
+        }
+    }
+
+    private record SharedFrame(long fromVersion, long toVersion, String json) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<LeaderboardSnapshot> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // sender 스레드 하나만 접근한다
+        private LeaderboardSnapshot lastSent;
+
+        private Subscriber(SseEmitter emitter, LeaderboardSnapshot lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        // 이전에 대기 중이던 스냅샷은 최신 스냅샷으로 덮어쓴다
+        private void offer(LeaderboardSnapshot snapshot) {
+            pending.set(snapshot);
+            if (sending.compareAndSet(false, true)) {
+                senderExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                LeaderboardSnapshot snapshot;
+                while ((snapshot = pending.getAndSet(null)) != null) {
+                    if (!send(snapshot)) {
+                        return;
+                    }
+                }
+                sending.set(false);
+            } while (pending.get() != null && sending.compareAndSet(false, true));
+        }
+
+        private boolean send(LeaderboardSnapshot snapshot) {
+            if (snapshot.version() <= lastSent.version()) {
+                return true;
+            }
+            SharedFrame frame = latestFrame;
+            String json = frame != null && frame.fromVersion() == lastSent.version()
+                    && frame.toVersion() == snapshot.version()
+                    ? frame.json()
+                    : serialize(snapshot.toDeltaResponse(lastSent));
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(DELTA_EVENT)
+                        .id(Long.toString(snapshot.version()))
+                        .data(json, MediaType.APPLICATION_JSON));
+                lastSent = snapshot;
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Leaderboard stream subscriber disconnected: {}", e.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
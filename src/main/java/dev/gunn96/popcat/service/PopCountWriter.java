@@ -0,0 +1,112 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import dev.gunn96.popcat.repository.RegionPopRepository;
+import dev.gunn96.popcat.repository.VisitorPopRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * visitor_pops / region_pops 카운트를 실제로 DB에 반영하는 컴포넌트.
+ * 동기 경로(PopServiceImpl)와 write-behind 플러셔가 함께 사용한다.
+ * 조회 없이 upsert 한 번으로 증가시키므로 동시 요청에서도 카운트가 유실되지 않는다.
+ */
+@Slf4j
+@Component
+@Transactional
+@RequiredArgsConstructor
+public class PopCountWriter {
+    private static final String H2_PRODUCT_NAME = "H2";
+
+    private final VisitorPopRepository visitorPopRepository;
+    private final RegionPopRepository regionPopRepository;
+    private final DataSource dataSource;
+
+    private boolean useMerge;
+
+    @PostConstruct
+    public void initialize() {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            useMerge = H2_PRODUCT_NAME.equals(productName);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect database product, falling back to ON CONFLICT upserts", e);
+        }
+    }
+
+    // 방문자 팝과 지역 팝을 하나의 트랜잭션으로 업데이트
+    public void addPop(String ipAddress, String regionCode, long delta) {
+        addVisitorPop(ipAddress, regionCode, delta);
+        addRegionPop(regionCode, delta);
+    }
+
+    // 병합된 방문자 델타와 그 지역 합계를 하나의 트랜잭션으로 반영
+    public void addPops(Map<VisitorPopEntity.VisitorPopId, Long> deltas) {
+        Map<String, Long> regionDeltas = new HashMap<>();
+        deltas.forEach((id, delta) -> {
+            addVisitorPop(id.getIpAddress(), id.getRegionCode(), delta);
+            regionDeltas.merge(id.getRegionCode(), delta, Long::sum);
+        });
+        regionDeltas.forEach(this::addRegionPop);
+    }
+
+    // 병합된 방문자 델타를 하나의 트랜잭션으로 반영
+    public void addVisitorPops(Map<VisitorPopEntity.VisitorPopId, Long> deltas) {
+        deltas.forEach((id, delta) -> addVisitorPop(id.getIpAddress(), id.getRegionCode(), delta));
+    }
+
+    // 병합된 지역 델타를 하나의 트랜잭션으로 반영
+    public void addRegionPops(Map<String, Long> deltas) {
+        deltas.forEach(this::addRegionPop);
+    }
+
+    // 외부 카운터 저장소의 방문자 누적값을 반영
+    public void saveVisitorCounts(Map<VisitorPopEntity.VisitorPopId, Long> totals) {
+        totals.forEach((id, count) -> {
+            if (useMerge) {
+                visitorPopRepository.mergeCountIfGreater(id.getIpAddress(), id.getRegionCode(), count);
+            } else {
+                visitorPopRepository.saveCountIfGreater(id.getIpAddress(), id.getRegionCode(), count);
+            }
+        });
+    }
+
+    // 외부 카운터 저장소의 지역 누적값을 반영
+    public void saveRegionCounts(Map<String, Long> totals) {
+        totals.forEach((regionCode, count) -> {
+            if (useMerge) {
+                regionPopRepository.mergeCountIfGreater(regionCode, count);
+            } else {
+                regionPopRepository.saveCountIfGreater(regionCode, count);
+            }
+        });
+    }
+
+    // 방문자 팝 업데이트
+    private void addVisitorPop(String ipAddress, String regionCode, long delta) {
+        if (useMerge) {
+            visitorPopRepository.mergeIncrementCount(ipAddress, regionCode, delta);
+        } else {
+            visitorPopRepository.incrementCount(ipAddress, regionCode, delta);
+        }
+    }
+
+    // 지역 팝 업데이트
+    private void addRegionPop(String regionCode, long delta) {
+        if (useMerge) {
+            regionPopRepository.mergeIncrementCount(regionCode, delta);
+        } else {
+            regionPopRepository.incrementCount(regionCode, delta);
+        }
+    }
+}
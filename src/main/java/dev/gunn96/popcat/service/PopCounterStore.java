@@ -0,0 +1,20 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+
+import java.util.Map;
+
+/**
+ * 팝 카운트가 실시간으로 누적되는 저장소.
+ * {@code popcat.counter-store} 프로퍼티로 구현체를 선택한다. (database | redis)
+ */
+public interface PopCounterStore {
+    void addPop(String ipAddress, String regionCode, long delta);
+
+    // (IP, 지역) 별로 합친 델타를 반영한다. 한 번에 반영할 수 있는 구현체는 재정의한다
+    default void addPops(Map<VisitorPopEntity.VisitorPopId, Long> deltas) {
+        deltas.forEach((id, delta) -> addPop(id.getIpAddress(), id.getRegionCode(), delta));
+    }
+
+    Map<String, Long> findRegionCounts();
+}
@@ -0,0 +1,240 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 지역 코드 해시로 나눈 파티션마다 bounded 큐와 전담 워커 하나를 두는 팝 적재 파이프라인.
+ * 한 지역의 팝은 항상 같은 워커가 처리하므로 지역 카운터를 두고 요청 스레드끼리 경합하지 않는다.
+ * 워커는 큐에 쌓인 팝을 batch-size 만큼 꺼내 (IP, 지역) 별로 합친 뒤 {@link PopCounterStore} 에 한 번에 반영한다.
+ *
+ * 호출자는 반영이 끝날 때까지 기다리거나(ack) 큐에 넣고 바로 돌아갈 수 있다(fire-and-forget).
+ * ack 를 기다리다 시간이 초과돼도 팝은 이미 큐에 있어 나중에 반영되므로 실패로 돌려주지 않는다.
+ * 큐가 가득 차면 호출 스레드에서 바로 저장소에 기록한다.
+ */
+@Slf4j
+@Component
+public class PopIngestPipeline {
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final PopCounterStore popCounterStore;
+    private final boolean enabled;
+    private final int partitionCount;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long ackTimeoutMillis;
+    private final boolean virtualThreads;
+
+    private Partition[] partitions = new Partition[0];
+    private volatile boolean running;
+
+    public PopIngestPipeline(
+            PopCounterStore popCounterStore,
+            @Value("${popcat.ingest.enabled:false}") boolean enabled,
+            @Value("${popcat.ingest.partitions:4}") int partitionCount,
+            @Value("${popcat.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${popcat.ingest.batch-size:500}") int batchSize,
+            @Value("${popcat.ingest.ack-timeout-ms:5000}") long ackTimeoutMillis,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.popCounterStore = popCounterStore;
+        this.enabled = enabled;
+        this.partitionCount = Math.max(partitionCount, 1);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = Math.max(batchSize, 1);
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, new ArrayBlockingQueue<>(queueCapacity));
+            Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+            partitions[i].worker = builder.name("pop-ingest-" + i).start(partitions[i]::run);
+        }
+        log.info("Started pop ingest pipeline. partitions: {}, queueCapacity: {}", partitionCount, queueCapacity);
+    }
+
+    // 워커를 멈춘 뒤 큐에 남은 팝을 모두 반영한다.
+    // 이 사이에 들어온 팝은 enqueue 가 다시 꺼내 호출 스레드에서 반영한다
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Partition partition : partitions) {
+            try {
+                partition.worker.join(ackTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Partition partition : partitions) {
+            List<PopEvent> batch = new ArrayList<>();
+            while (partition.queue.drainTo(batch, batchSize) > 0) {
+                partition.apply(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 팝을 해당 지역의 파티션에 넣는다. waitForAck 가 true 면 저장소에 반영될 때까지 기다린다.
+     *
+     * 시간 안에 반영되지 않으면 큐에 남은 팝이 나중에 반영되도록 두고 그대로 돌아온다.
+     * 여기서 실패로 돌려주면 클라이언트가 다시 보내 두 번 세어지기 때문이다.
+     *
+     * @throws IllegalStateException 워커가 반영에 실패한 경우
+     */
+    public void addPop(String ipAddress, String regionCode, long delta, boolean waitForAck) {
+        if (!waitForAck) {
+            if (!enqueue(new PopEvent(ipAddress, regionCode, delta, null))) {
+                popCounterStore.addPop(ipAddress, regionCode, delta);
+            }
+            return;
+        }
+        CompletableFuture<Void> ack = submit(ipAddress, regionCode, delta);
+        try {
+            ack.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for pop acknowledgement", e);
+        } catch (TimeoutException e) {
+            log.warn("Pop acknowledgement timed out after {}ms; the write stays queued. region: {}, delta: {}",
+                    ackTimeoutMillis, regionCode, delta);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to apply pops", e.getCause());
+        }
+    }
+
+    /**
+     * 팝을 해당 지역의 파티션에 넣고, 저장소에 반영되면 완료되는 future 를 반환한다.
+     * 큐가 가득 차 있으면 호출 스레드에서 바로 기록하고 완료된 future 를 반환한다.
+     */
+    public CompletableFuture<Void> submit(String ipAddress, String regionCode, long delta) {
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        if (!enqueue(new PopEvent(ipAddress, regionCode, delta, ack))) {
+            popCounterStore.addPop(ipAddress, regionCode, delta);
+            ack.complete(null);
+        }
+        return ack;
+    }
+
+    /**
+     * 큐에 넣었으면 true. 넣은 직후 stop() 이 시작됐으면 다시 꺼내 false 를 반환한다.
+     * 꺼내지 못했다면 워커나 stop() 이 이미 가져가 반영하므로 true 다.
+     */
+    private boolean enqueue(PopEvent event) {
+        if (!running) {
+            return false;
+        }
+        BlockingQueue<PopEvent> queue = partitionOf(event.regionCode()).queue;
+        if (!queue.offer(event)) {
+            return false;
+        }
+        return running || !queue.remove(event);
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    public int queueDepth(int partition) {
+        return partitions[partition].queue.size();
+    }
+
+    static int partitionOf(String regionCode, int partitions) {
+        int hash = regionCode == null ? 0 : regionCode.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    private Partition partitionOf(String regionCode) {
+        return partitions[partitionOf(regionCode, partitions.length)];
+    }
+
+    private record PopEvent(String ipAddress, String regionCode, long delta, CompletableFuture<Void> ack) {
+    }
+
+    private final class Partition {
+        private final int index;
+        private final BlockingQueue<PopEvent> queue;
+        private Thread worker;
+
+        private Partition(int index, BlockingQueue<PopEvent> queue) {
+            this.index = index;
+            this.queue = queue;
+        }
+
+        private void run() {
+            List<PopEvent> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    PopEvent first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    apply(batch);
+                } catch (InterruptedException e) {
+                    // 큐에 남은 팝은 stop() 이 반영한다
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        // 이 파티션의 워커만 호출하므로 병합용 맵에 동기화가 필요 없다
+        private void apply(List<PopEvent> batch) {
+            Map<VisitorPopEntity.VisitorPopId, Long> deltas = new HashMap<>();
+            for (PopEvent event : batch) {
+                deltas.merge(new VisitorPopEntity.VisitorPopId(event.ipAddress(), event.regionCode()),
+                        event.delta(), Long::sum);
+            }
+            try {
+                popCounterStore.addPops(deltas);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} pops in ingest partition {}", batch.size(), index, e);
+                for (PopEvent event : batch) {
+                    if (event.ack() != null) {
+                        event.ack().completeExceptionally(e);
+                    }
+                }
+                return;
+            }
+            for (PopEvent event : batch) {
+                if (event.ack() != null) {
+                    event.ack().complete(null);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.domain.RegionCodes;
+import dev.gunn96.popcat.exception.PopException;
+import dev.gunn96.popcat.util.IpAddress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * (IP, 지역) 별 token bucket. 초당 pops-per-second 만큼 차오르고 burst 까지 쌓인다.
+ * 버킷 상태는 GCRA 방식으로 "버킷이 다시 가득 차는 시각" long 하나로 표현하고,
+ * (IP, 지역)을 long 키로 접어 stripe 별 open addressing 테이블(long[] 두 개)에 담는다.
+ * 가득 찬 버킷은 항목이 없는 것과 같으므로, 정리할 때 이미 가득 찬 항목을 지운다.
+ *
+ * mode 가 clamp 면 남은 만큼만 허용하고, reject 면 요청한 개수를 모두 허용할 수 있을 때만 받는다.
+ * 허용량이 0 이면 {@link PopException.RateLimitExceededException} 을 던진다.
+ */
+@Slf4j
+@Component
+public class PopRateLimiter {
+    public static final String MODE_CLAMP = "clamp";
+    public static final String MODE_REJECT = "reject";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long EMPTY_KEY = 0;
+    private static final int INITIAL_STRIPE_CAPACITY = 256;
+
+    private final boolean enabled;
+    private final boolean reject;
+    private final long burst;
+    // pop 하나가 차오르는 데 걸리는 시간
+    private final long emissionIntervalNanos;
+    // 가득 찬 버킷이 비는 데 필요한 시간 = burst * emissionInterval
+    private final long burstToleranceNanos;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final LongAdder rejected = new LongAdder();
+
+    public PopRateLimiter(
+            @Value("${popcat.rate-limit.enabled:false}") boolean enabled,
+            @Value("${popcat.rate-limit.pops-per-second:100}") double popsPerSecond,
+            @Value("${popcat.rate-limit.burst:800}") long burst,
+            @Value("${popcat.rate-limit.mode:clamp}") String mode,
+            @Value("${popcat.rate-limit.stripes:0}") int stripes
+    ) {
+        if (popsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("popcat.rate-limit.pops-per-second and burst must be positive");
+        }
+        if (!MODE_CLAMP.equals(mode) && !MODE_REJECT.equals(mode)) {
+            throw new IllegalArgumentException("Unknown popcat.rate-limit.mode: " + mode);
+        }
+        this.enabled = enabled;
+        this.reject = MODE_REJECT.equals(mode);
+        this.burst = burst;
+        this.emissionIntervalNanos = Math.max(1, Math.round(NANOS_PER_SECOND / popsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+
+        int stripeCount = ceilPowerOfTwo(stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 4);
+        this.stripes = new Stripe[enabled ? stripeCount : 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(INITIAL_STRIPE_CAPACITY);
+        }
+        this.stripeMask = this.stripes.length - 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 허용된 pop 개수를 반환한다. 음수 요청은 0 으로 본다.
+     *
+     * @throws PopException.RateLimitExceededException 허용할 수 있는 pop 이 없는 경우
+     */
+    public long acquire(IpAddress address, String regionCode, long requested) {
+        if (!enabled || requested <= 0) {
+            return Math.max(requested, 0);
+        }
+        // burst 보다 큰 요청은 reject 모드에서 영원히 받을 수 없으므로 burst 로 자른다
+        long wanted = Math.min(requested, burst);
+        long key = key(address, regionCode);
+        long now = System.nanoTime();
+
+        Stripe stripe = stripes[(int) (key ^ key >>> 32) & stripeMask];
+        long granted;
+        long retryAtNanos;
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(key);
+            // 버킷이 다시 가득 차는 시각. 지났으면 가득 찬 상태다
+            long fullAt = slot >= 0 ? Math.max(stripe.values[slot], now) : now;
+            long available = (burstToleranceNanos - (fullAt - now)) / emissionIntervalNanos;
+            granted = reject ? (available >= wanted ? wanted : 0) : Math.min(available, wanted);
+            if (granted > 0) {
+                stripe.put(slot, key, fullAt + granted * emissionIntervalNanos, now);
+                return granted;
+            }
+            // 부족한 만큼 차오르는 시각
+            long needed = reject ? wanted : 1;
+            retryAtNanos = fullAt + needed * emissionIntervalNanos - burstToleranceNanos;
+        } finally {
+            stripe.lock.unlock();
+        }
+        rejected.increment();
+        long retryAfterNanos = retryAtNanos - now;
+        throw new PopException.RateLimitExceededException(
+                Math.max(1, (retryAfterNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+    }
+
+    // 가득 찬 버킷을 지워 한동안 오지 않은 방문자가 메모리를 차지하지 않게 한다
+    @Scheduled(fixedDelayString = "${popcat.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                evicted += stripe.rebuild(now, stripe.keys.length);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // IPv4 는 (지역 인덱스 + 1) << 32 | 주소로 그대로 담고, IPv6 는 해시에 지역 인덱스를 붙이고 최상위 비트를 세운다
+    static long key(IpAddress address, String regionCode) {
+        int region = RegionCodes.indexOf(regionCode);
+        long regionBits = (region == RegionCodes.NOT_FOUND ? RegionCodes.unknownIndex() : region) + 1;
+        if (address != null && address.isIpv4()) {
+            return regionBits << 32 | (address.ipv4Value() & 0xFFFFFFFFL);
+        }
+        long hash = address != null ? mix(address.high() * 0x9E3779B97F4A7C15L + address.low()) : mix(0);
+        return Long.MIN_VALUE | hash << 9 >>> 1 | regionBits;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb53a9ed8ee1aL;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static int ceilPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    // 선형 탐사 open addressing. 키 0 은 빈 칸이다. 접근은 stripe 락 안에서만 한다.
+    // 가상 스레드가 경합 중에 캐리어 스레드를 붙잡지 않도록 모니터 대신 ReentrantLock 을 쓴다
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] keys;
+        private long[] values;
+        private int size;
+
+        private Stripe(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+        }
+
+        // 키가 있으면 그 칸, 없으면 -(넣을 칸 + 1)
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (true) {
+                long current = keys[slot];
+                if (current == key) {
+                    return slot;
+                }
+                if (current == EMPTY_KEY) {
+                    return -(slot + 1);
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void put(int slot, long key, long value, long now) {
+            if (slot >= 0) {
+                values[slot] = value;
+                return;
+            }
+            // 3/4 이상 차면 가득 찬 버킷을 정리하고, 그래도 절반 넘게 차 있으면 두 배로 키운다
+            if ((size + 1) * 4 > keys.length * 3) {
+                rebuild(now, keys.length);
+                if ((size + 1) * 2 > keys.length) {
+                    rebuild(now, keys.length * 2);
+                }
+                slot = find(key);
+            }
+            keys[-(slot + 1)] = key;
+            values[-(slot + 1)] = value;
+            size++;
+        }
+
+        // 가득 찬(시각이 지난) 항목을 빼고 capacity 크기 테이블로 다시 넣는다. 지운 개수를 반환한다
+        private int rebuild(long now, int capacity) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[capacity];
+            values = new long[capacity];
+            int before = size;
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY_KEY && oldValues[i] - now > 0) {
+                    int slot = find(oldKeys[i]);
+                    keys[-(slot + 1)] = oldKeys[i];
+                    values[-(slot + 1)] = oldValues[i];
+                    size++;
+                }
+            }
+            return before - size;
+        }
+    }
+}
@@ -1,7 +1,21 @@
 package dev.gunn96.popcat.service;
 
+import dev.gunn96.popcat.dto.request.PopBatchRequest;
 import dev.gunn96.popcat.dto.response.PopResponse;
+import dev.gunn96.popcat.security.jwt.TokenClaims;
+
+import java.util.List;
 
 public interface PopService {
-    PopResponse addPops(String ipAddress, String regionCode, long count);
+    PopResponse addPops(TokenClaims claims, long count);
+
+    // 배치에서 인정할 팝 개수. 방문자의 시간 구간마다 이전 요청까지 합쳐 maxPopsAppendPerVisitor 까지만 센다.
+    // 보낸 팝이 있는데 하나도 인정하지 못하면 PopsNotCreditedException 을 던진다
+    long countBatch(TokenClaims claims, List<PopBatchRequest.Entry> entries);
+
+    // countBatch 로 검증한 개수를 한 번에 반영한다
+    PopResponse addPopBatch(TokenClaims claims, long batchCount);
+
+    // beacon 요청의 팝을 반영하고, 갱신했으면 새 토큰을 반환한다(없으면 null)
+    String addBeaconPops(TokenClaims claims, long count);
 }
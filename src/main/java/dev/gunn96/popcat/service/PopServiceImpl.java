@@ -1,62 +1,126 @@
 package dev.gunn96.popcat.service;
 
-import dev.gunn96.popcat.domain.Pop;
+import dev.gunn96.popcat.dto.request.PopBatchRequest;
 import dev.gunn96.popcat.dto.response.PopResponse;
+import dev.gunn96.popcat.exception.PopException;
 import dev.gunn96.popcat.mapper.PopMapper;
-import dev.gunn96.popcat.repository.RegionPopRepository;
-import dev.gunn96.popcat.repository.VisitorPopRepository;
 import dev.gunn96.popcat.security.jwt.JwtProvider;
+import dev.gunn96.popcat.security.jwt.TokenClaims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
-@Transactional(readOnly = true)
 @Slf4j
 @RequiredArgsConstructor
 public class PopServiceImpl implements PopService {
-    private final VisitorPopRepository visitorPopRepository;
-    private final RegionPopRepository regionPopRepository;
+    private final PopCounterStore popCounterStore;
+    private final RegionCounterRegistry regionCounterRegistry;
     private final JwtProvider jwtProvider;
     private final PopMapper popMapper;
+    private final PopIngestPipeline popIngestPipeline;
+    private final PopWindowLedger popWindowLedger;
 
     @Value("${popcat.max-pops-append-per-visitor:800}")
     private long maxPopsAppendPerVisitor;
 
-    @Transactional
-    public PopResponse addPops(String ipAddress, String regionCode, long count) {
-        long validCount = validateCount(count);
-        updateVisotorPop(ipAddress, regionCode, validCount);
-        updateRegionPop(regionCode, validCount);
-        String newToken = jwtProvider.generateToken(ipAddress, regionCode);
+    // 남은 유효 시간이 전체 수명의 이 비율 이하일 때만 새 토큰을 발급한다. 1 이면 매 요청 발급한다
+    @Value("${popcat.token.renew-before-fraction:0.2}")
+    private double renewBeforeFraction;
 
-        return popMapper.toResponse(validCount, newToken, true);
+    // ingest 파이프라인을 쓸 때 반영이 끝날 때까지 기다릴지 여부. false 면 큐에 넣고 바로 응답한다
+    @Value("${popcat.ingest.ack:true}")
+    private boolean ingestAck;
+
+    // 켜면 /pop, /beacon 도 배치와 같은 구간 상한을 나눠 쓴다. 끄면 요청마다 maxPopsAppendPerVisitor 까지 받는다
+    @Value("${popcat.pop-window.apply-to-single:false}")
+    private boolean windowAppliesToSingle;
+
+    public PopResponse addPops(TokenClaims claims, long count) {
+        return applyPops(claims, countSingle(claims, count));
+    }
+
+    public long countBatch(TokenClaims claims, List<PopBatchRequest.Entry> entries) {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> windowCounts = new HashMap<>();
+        long requested = 0;
+        for (PopBatchRequest.Entry entry : entries) {
+            // 미래 시각은 지금으로 본다
+            long timestamp = Math.min(entry.timestamp(), now);
+            if (!popWindowLedger.isFresh(timestamp, now)) {
+                continue;
+            }
+            long count = Math.min(Math.max(entry.count(), 0), maxPopsAppendPerVisitor);
+            windowCounts.merge(popWindowLedger.windowOf(timestamp), count, Long::sum);
+            requested += count;
+        }
+        // 이전 요청에서 이미 인정한 만큼은 빼고 센다
+        long total = 0;
+        for (Map.Entry<Long, Long> windowCount : windowCounts.entrySet()) {
+            total += popWindowLedger.credit(claims.ipAddress(), claims.regionCode(), windowCount.getKey(),
+                    Math.min(windowCount.getValue(), maxPopsAppendPerVisitor));
+        }
+        if (requested > 0 && total == 0) {
+            throw new PopException.PopsNotCreditedException();
+        }
+        return total;
     }
 
-    // 방문자 팝 업데이트
-    private void updateVisotorPop(String ipAddress, String regionCode, long validCount) {
-        Pop visitorPop = visitorPopRepository
-                .findByIpAddressAndRegionCode(ipAddress, regionCode)
-                .map(popMapper::from)
-                .orElseGet(() -> Pop.createNew(ipAddress, regionCode));
+    public PopResponse addPopBatch(TokenClaims claims, long batchCount) {
+        return applyPops(claims, Math.max(batchCount, 0));
+    }
+
+    public String addBeaconPops(TokenClaims claims, long count) {
+        // beacon 은 응답 본문이 없으므로 파이프라인 반영을 기다리지 않는다
+        return writePops(claims, countSingle(claims, count), false);
+    }
 
-        Pop updatedVisitorPop = visitorPop.addCount(validCount);
-        visitorPopRepository.save(popMapper.toVisitorEntity(updatedVisitorPop));
+    private long countSingle(TokenClaims claims, long count) {
+        long validCount = validateCount(count);
+        if (!windowAppliesToSingle || validCount == 0) {
+            return validCount;
+        }
+        long window = popWindowLedger.windowOf(System.currentTimeMillis());
+        long credited = popWindowLedger.credit(claims.ipAddress(), claims.regionCode(), window, validCount);
+        if (credited == 0) {
+            throw new PopException.PopsNotCreditedException();
+        }
+        return credited;
     }
 
-    // 지역 팝 업데이트
-    private void updateRegionPop(String regionCode, long validCount) {
-        Pop regionPop = regionPopRepository
-                .findById(regionCode)
-                .map(popMapper::from)
-                .orElseGet(() -> Pop.createNew(null, regionCode));
+    private PopResponse applyPops(TokenClaims claims, long validCount) {
+        String newToken = writePops(claims, validCount, ingestAck);
+        return popMapper.toResponse(validCount, newToken, true);
+    }
 
-        Pop updatedRegionPop = regionPop.addCount(validCount);
-        regionPopRepository.save(popMapper.toRegionEntity(updatedRegionPop));
+    // 팝을 반영하고, 갱신이 필요하면 새 토큰을 반환한다
+    private String writePops(TokenClaims claims, long validCount, boolean waitForAck) {
+        String ipAddress = claims.ipAddress();
+        String regionCode = claims.regionCode();
+        if (validCount > 0) {
+            if (popIngestPipeline.isEnabled()) {
+                popIngestPipeline.addPop(ipAddress, regionCode, validCount, waitForAck);
+            } else {
+                popCounterStore.addPop(ipAddress, regionCode, validCount);
+            }
+            if (regionCounterRegistry.isEnabled()) {
+                regionCounterRegistry.add(regionCode, validCount);
+            }
+        }
+        return shouldRenew(claims) ? jwtProvider.generateToken(claims.address(), regionCode) : null;
     }
 
+    private boolean shouldRenew(TokenClaims claims) {
+        long lifetimeSeconds = claims.expiresAt() - claims.issuedAt();
+        long remainingSeconds = claims.expiresAt() - Instant.now().getEpochSecond();
+        return remainingSeconds <= lifetimeSeconds * renewBeforeFraction;
+    }
 
     private long validateCount(long count) {
         if (count < 0) {
@@ -0,0 +1,98 @@
+package dev.gunn96.popcat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.gunn96.popcat.exception.PopException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * (IP, 지역, 시간 구간) 별로 이미 인정한 팝 개수를 기억한다.
+ * /batch 는 한 구간에 maxPopsAppendPerVisitor 까지만 인정하므로
+ * 같은 배치를 다시 보내거나 여러 구간을 한 번에 채워도 구간당 상한을 넘지 못한다.
+ * /pop, /beacon 은 popcat.pop-window.apply-to-single 을 켰을 때만 같은 상한을 함께 쓴다.
+ *
+ * 항목은 구간이 max-age-ms 보다 오래되어 더 이상 인정될 수 없을 때까지만 보관하고, 그 전에는 지우지 않는다.
+ * 지운 구간은 다시 보낸 배치를 처음처럼 인정하게 되므로, 항목이 popcat.pop-window.max-size 에 닿으면
+ * 오래된 항목을 밀어내는 대신 새 구간의 인정을 거절(429)한다.
+ * 인스턴스마다 따로 세므로 여러 인스턴스로 나눠 보내면 인스턴스 수만큼 인정될 수 있다.
+ */
+@Component
+public class PopWindowLedger {
+    private final long windowMillis;
+    private final long maxAgeMillis;
+    private final long maxPopsPerWindow;
+    private final long maxSize;
+    private final Cache<WindowKey, AtomicLong> credited;
+
+    public PopWindowLedger(
+            @Value("${popcat.pop-batch.window-ms:30000}") long windowMillis,
+            @Value("${popcat.pop-batch.max-age-ms:600000}") long maxAgeMillis,
+            @Value("${popcat.max-pops-append-per-visitor:800}") long maxPopsPerWindow,
+            @Value("${popcat.pop-window.max-size:1000000}") long maxSize
+    ) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("popcat.pop-batch.window-ms must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxPopsPerWindow = maxPopsPerWindow;
+        this.maxSize = maxSize;
+        // 구간의 첫 기록은 구간 시작 이후이므로, 그때부터 max-age + 구간 길이면 더 인정될 일이 없다.
+        // 크기 제한으로 밀어내면 재전송을 다시 인정하게 되므로 만료로만 지운다
+        this.credited = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(maxAgeMillis + windowMillis))
+                .build();
+    }
+
+    public long windowOf(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, windowMillis);
+    }
+
+    // 이 시각의 항목을 아직 인정할 수 있는지. 미래 시각은 호출하는 쪽에서 지금으로 바꿔 넘긴다
+    public boolean isFresh(long timestampMillis, long nowMillis) {
+        return nowMillis - timestampMillis <= maxAgeMillis;
+    }
+
+    /**
+     * 구간에 남은 만큼만 인정하고, 인정한 개수를 반환한다.
+     * 처음 보는 구간인데 장부가 가득 찼으면 RateLimitExceededException 을 던진다.
+     */
+    public long credit(String ipAddress, String regionCode, long window, long requested) {
+        if (requested <= 0) {
+            return 0;
+        }
+        WindowKey windowKey = new WindowKey(ipAddress, regionCode, window);
+        AtomicLong count = credited.getIfPresent(windowKey);
+        if (count == null) {
+            if (credited.estimatedSize() >= maxSize) {
+                credited.cleanUp();
+                if (credited.estimatedSize() >= maxSize) {
+                    // 다음 구간쯤에는 만료된 항목이 빠져 자리가 난다
+                    throw new PopException.RateLimitExceededException(Math.ceilDiv(windowMillis, 1000));
+                }
+            }
+            count = credited.get(windowKey, key -> new AtomicLong());
+        }
+        while (true) {
+            long current = count.get();
+            long granted = Math.min(requested, maxPopsPerWindow - current);
+            if (granted <= 0) {
+                return 0;
+            }
+            if (count.compareAndSet(current, current + granted)) {
+                return granted;
+            }
+        }
+    }
+
+    public long size() {
+        return credited.estimatedSize();
+    }
+
+    private record WindowKey(String ipAddress, String regionCode, long window) {
+    }
+}
@@ -0,0 +1,70 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * write-behind 모드에서 팝 델타를 (ipAddress, regionCode) 와 regionCode 기준으로 병합해 두는 버퍼.
+ * 같은 키로 들어온 요청은 하나의 델타로 합쳐지고, {@link PopWriteBufferFlusher} 가 주기적으로 비운다.
+ */
+@Component
+public class PopWriteBuffer {
+    private final ConcurrentHashMap<VisitorPopEntity.VisitorPopId, Long> visitorDeltas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> regionDeltas = new ConcurrentHashMap<>();
+
+    @Value("${popcat.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${popcat.write-behind.max-buffer-size:100000}")
+    private int maxBufferSize;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 버퍼가 가득 찬 상태에서 새로운 방문자 키가 들어오면 false 를 반환한다. 호출자는 직접 DB에 기록해야 한다.
+    public boolean add(String ipAddress, String regionCode, long delta) {
+        VisitorPopEntity.VisitorPopId id = new VisitorPopEntity.VisitorPopId(ipAddress, regionCode);
+        if (visitorDeltas.size() >= maxBufferSize && !visitorDeltas.containsKey(id)) {
+            return false;
+        }
+        visitorDeltas.merge(id, delta, Long::sum);
+        regionDeltas.merge(regionCode, delta, Long::sum);
+        return true;
+    }
+
+    public Map<VisitorPopEntity.VisitorPopId, Long> drainVisitorDeltas() {
+        return drain(visitorDeltas);
+    }
+
+    public Map<String, Long> drainRegionDeltas() {
+        return drain(regionDeltas);
+    }
+
+    // 플러시에 실패한 델타를 다시 버퍼에 합친다
+    public void restore(Map<VisitorPopEntity.VisitorPopId, Long> visitors, Map<String, Long> regions) {
+        visitors.forEach((id, delta) -> visitorDeltas.merge(id, delta, Long::sum));
+        regions.forEach((regionCode, delta) -> regionDeltas.merge(regionCode, delta, Long::sum));
+    }
+
+    public int size() {
+        return visitorDeltas.size();
+    }
+
+    // 키 단위 remove 로 비워서 동시에 merge 되는 델타가 유실되지 않도록 한다
+    private static <K> Map<K, Long> drain(ConcurrentHashMap<K, Long> deltas) {
+        Map<K, Long> drained = new HashMap<>(deltas.size());
+        for (K key : deltas.keySet()) {
+            Long delta = deltas.remove(key);
+            if (delta != null) {
+                drained.put(key, delta);
+            }
+        }
+        return drained;
+    }
+}
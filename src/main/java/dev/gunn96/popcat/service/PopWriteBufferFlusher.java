@@ -0,0 +1,87 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "popcat.write-behind.enabled", havingValue = "true")
+public class PopWriteBufferFlusher {
+    private final PopWriteBuffer popWriteBuffer;
+    private final PopCountWriter popCountWriter;
+
+    @Value("${popcat.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${popcat.write-behind.drain-on-shutdown:true}")
+    private boolean drainOnShutdown;
+
+    @Scheduled(fixedDelayString = "${popcat.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        Map<VisitorPopEntity.VisitorPopId, Long> visitorDeltas = popWriteBuffer.drainVisitorDeltas();
+        Map<String, Long> regionDeltas = popWriteBuffer.drainRegionDeltas();
+        if (visitorDeltas.isEmpty() && regionDeltas.isEmpty()) {
+            return;
+        }
+
+        flushVisitorPops(visitorDeltas);
+        flushRegionPops(regionDeltas);
+        log.debug("Flushed {} visitor pops and {} region pops", visitorDeltas.size(), regionDeltas.size());
+    }
+
+    @PreDestroy
+    public void drain() {
+        if (!drainOnShutdown) {
+            return;
+        }
+        log.info("Draining {} buffered visitor pops before shutdown", popWriteBuffer.size());
+        flush();
+    }
+
+    // batch-size 단위로 나누어 배치마다 하나의 트랜잭션으로 반영
+    private void flushVisitorPops(Map<VisitorPopEntity.VisitorPopId, Long> visitorDeltas) {
+        Map<VisitorPopEntity.VisitorPopId, Long> batch = new HashMap<>();
+        for (Map.Entry<VisitorPopEntity.VisitorPopId, Long> entry : visitorDeltas.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= batchSize) {
+                writeVisitorBatch(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeVisitorBatch(batch);
+        }
+    }
+
+    private void writeVisitorBatch(Map<VisitorPopEntity.VisitorPopId, Long> batch) {
+        try {
+            popCountWriter.addVisitorPops(batch);
+        } catch (Exception e) {
+            log.error("Failed to flush {} visitor pops, restoring them to the buffer", batch.size(), e);
+            popWriteBuffer.restore(batch, Collections.emptyMap());
+        }
+    }
+
+    private void flushRegionPops(Map<String, Long> regionDeltas) {
+        if (regionDeltas.isEmpty()) {
+            return;
+        }
+        try {
+            popCountWriter.addRegionPops(regionDeltas);
+        } catch (Exception e) {
+            log.error("Failed to flush {} region pops, restoring them to the buffer", regionDeltas.size(), e);
+            popWriteBuffer.restore(Collections.emptyMap(), regionDeltas);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Redis 카운터를 주기적으로 region_pops / visitor_pops 에 기록한다.
+ * 지역은 누적값을 GREATEST 로 기록하므로 여러 인스턴스가 동시에 실행하거나 재시도해도 안전하다.
+ * 방문자는 Redis 에서 원자적으로 꺼낸 델타를 더하고, 실패하면 델타를 Redis 에 되돌린다.
+ * 꺼낸 뒤 기록 전에 프로세스가 죽으면 그 배치의 델타는 잃는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "popcat.counter-store", havingValue = "redis")
+public class RedisPopCheckpointer {
+    private final RedisPopCounterStore redisPopCounterStore;
+    private final PopCountWriter popCountWriter;
+
+    @Value("${popcat.redis.checkpoint-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${popcat.redis.checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        checkpointRegions();
+        checkpointVisitors();
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        log.info("Checkpointing redis pop counters before shutdown");
+        checkpoint();
+    }
+
+    private void checkpointRegions() {
+        Map<String, Long> totals = redisPopCounterStore.popDirtyRegionCounts();
+        if (totals.isEmpty()) {
+            return;
+        }
+        try {
+            popCountWriter.saveRegionCounts(totals);
+        } catch (Exception e) {
+            log.error("Failed to checkpoint {} region pops", totals.size(), e);
+            redisPopCounterStore.markRegionsDirty(totals.keySet());
+        }
+    }
+
+    private void checkpointVisitors() {
+        int checkpointed = 0;
+        Map<VisitorPopEntity.VisitorPopId, Long> deltas;
+        while (!(deltas = redisPopCounterStore.popDirtyVisitorDeltas(batchSize)).isEmpty()) {
+            try {
+                popCountWriter.addVisitorPops(deltas);
+                checkpointed += deltas.size();
+            } catch (Exception e) {
+                log.error("Failed to checkpoint {} visitor pops", deltas.size(), e);
+                redisPopCounterStore.restoreVisitorDeltas(deltas);
+                return;
+            }
+        }
+        if (checkpointed > 0) {
+            log.debug("Checkpointed {} visitor pops", checkpointed);
+        }
+    }
+}
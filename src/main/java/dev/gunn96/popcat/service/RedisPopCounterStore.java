@@ -0,0 +1,216 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.RegionPopEntity;
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import dev.gunn96.popcat.repository.RegionPopRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis 에 팝 카운트를 누적하는 저장소. 여러 인스턴스가 같은 카운터를 공유한다.
+ * 팝 하나는 Lua 스크립트 한 번으로 방문자/지역/전체 카운트를 모두 증가시키고,
+ * 변경된 필드를 dirty set 에 기록해 {@link RedisPopCheckpointer} 가 Postgres 로 옮길 수 있게 한다.
+ *
+ * 지역과 전체는 Postgres 값으로 시작한 누적값을 유지한다. 방문자는 마지막 체크포인트 이후의 델타만 두고,
+ * 체크포인트가 dirty set 과 함께 꺼내 지우며 Postgres 누적값에 더한다.
+ * 그래서 팝 경로에서 Postgres 를 읽지 않고, visitors 해시와 dirty:visitors 는 체크포인트 사이에 팝한 방문자만큼만 커진다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "popcat.counter-store", havingValue = "redis")
+public class RedisPopCounterStore implements PopCounterStore {
+    private static final String FIELD_SEPARATOR = "|";
+
+    // KEYS: visitors, regions, global, dirty visitors, dirty regions / ARGV: visitor field, region, delta
+    private static final RedisScript<Long> ADD_POP_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[3])
+            redis.call('HINCRBY', KEYS[2], ARGV[2], ARGV[3])
+            local globalTotal = redis.call('INCRBY', KEYS[3], ARGV[3])
+            redis.call('SADD', KEYS[4], ARGV[1])
+            redis.call('SADD', KEYS[5], ARGV[2])
+            return globalTotal
+            """, Long.class);
+
+    // KEYS: visitors, dirty visitors / ARGV: batch size
+    // 꺼낸 필드의 델타를 읽고 지워서, 여러 인스턴스가 동시에 체크포인트해도 같은 델타를 두 번 옮기지 않는다
+    private static final RedisScript<List> DRAIN_VISITORS_SCRIPT = new DefaultRedisScript<>("""
+            local fields = redis.call('SPOP', KEYS[2], ARGV[1])
+            local drained = {}
+            for _, field in ipairs(fields) do
+                local delta = redis.call('HGET', KEYS[1], field)
+                if delta then
+                    redis.call('HDEL', KEYS[1], field)
+                    table.insert(drained, field)
+                    table.insert(drained, delta)
+                end
+            end
+            return drained
+            """, List.class);
+
+    // KEYS: visitors, dirty visitors / ARGV: visitor field, delta 쌍
+    private static final RedisScript<Long> RESTORE_VISITORS_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV, 2 do
+                redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1])
+                redis.call('SADD', KEYS[2], ARGV[i])
+            end
+            return #ARGV / 2
+            """, Long.class);
+
+    // KEYS: seeded, regions, global / ARGV: region, count 쌍
+    // 여러 인스턴스가 동시에 띄워져도 한 번만, 중간에 끊기지 않고 초기화되도록 표시와 누적을 한 스크립트에서 처리한다
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SETNX', KEYS[1], '1') == 0 then
+                return 0
+            end
+            local total = 0
+            for i = 1, #ARGV, 2 do
+                redis.call('HINCRBY', KEYS[2], ARGV[i], ARGV[i + 1])
+                total = total + tonumber(ARGV[i + 1])
+            end
+            redis.call('INCRBY', KEYS[3], total)
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RegionPopRepository regionPopRepository;
+
+    private final String visitorsKey;
+    private final String regionsKey;
+    private final String globalKey;
+    private final String dirtyVisitorsKey;
+    private final String dirtyRegionsKey;
+    private final String seededKey;
+    private final List<String> scriptKeys;
+
+    public RedisPopCounterStore(
+            StringRedisTemplate redisTemplate,
+            RegionPopRepository regionPopRepository,
+            @Value("${popcat.redis.key-prefix:popcat:{pops}:}") String keyPrefix
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.regionPopRepository = regionPopRepository;
+        this.visitorsKey = keyPrefix + "visitors";
+        this.regionsKey = keyPrefix + "regions";
+        this.globalKey = keyPrefix + "global";
+        this.dirtyVisitorsKey = keyPrefix + "dirty:visitors";
+        this.dirtyRegionsKey = keyPrefix + "dirty:regions";
+        this.seededKey = keyPrefix + "seeded";
+        this.scriptKeys = List.of(visitorsKey, regionsKey, globalKey, dirtyVisitorsKey, dirtyRegionsKey);
+    }
+
+    // Redis 가 비어 있으면 Postgres 의 지역 누적값으로 한 번만 초기화한다
+    @PostConstruct
+    public void seedRegionCounts() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(seededKey))) {
+            return;
+        }
+        List<String> args = new ArrayList<>();
+        long globalSum = 0;
+        for (RegionPopEntity regionPop : regionPopRepository.findAll()) {
+            args.add(regionPop.getRegionCode());
+            args.add(Long.toString(regionPop.getCount()));
+            globalSum += regionPop.getCount();
+        }
+        Long seeded = redisTemplate.execute(SEED_SCRIPT, List.of(seededKey, regionsKey, globalKey),
+                args.toArray());
+        if (Long.valueOf(1).equals(seeded)) {
+            log.info("Seeded redis pop counters from database. globalSum: {}", globalSum);
+        }
+    }
+
+    @Override
+    public void addPop(String ipAddress, String regionCode, long delta) {
+        redisTemplate.execute(ADD_POP_SCRIPT, scriptKeys,
+                toVisitorField(ipAddress, regionCode), regionCode, Long.toString(delta));
+    }
+
+    @Override
+    public Map<String, Long> findRegionCounts() {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(regionsKey);
+        Map<String, Long> regionCounts = new HashMap<>(entries.size());
+        entries.forEach((regionCode, count) -> regionCounts.put((String) regionCode, Long.parseLong((String) count)));
+        return regionCounts;
+    }
+
+    // 변경된 방문자를 batchSize 만큼 꺼내 마지막 체크포인트 이후의 델타와 함께 반환하고, Redis 에서는 지운다
+    public Map<VisitorPopEntity.VisitorPopId, Long> popDirtyVisitorDeltas(int batchSize) {
+        List<?> drained = redisTemplate.execute(DRAIN_VISITORS_SCRIPT, List.of(visitorsKey, dirtyVisitorsKey),
+                Integer.toString(batchSize));
+        if (drained == null || drained.isEmpty()) {
+            return Map.of();
+        }
+        Map<VisitorPopEntity.VisitorPopId, Long> deltas = new HashMap<>(drained.size() / 2);
+        for (int i = 0; i < drained.size(); i += 2) {
+            deltas.put(toVisitorPopId((String) drained.get(i)), Long.parseLong((String) drained.get(i + 1)));
+        }
+        return deltas;
+    }
+
+    // 변경된 지역을 모두 꺼내 현재 누적값과 함께 반환한다
+    public Map<String, Long> popDirtyRegionCounts() {
+        Long size = redisTemplate.opsForSet().size(dirtyRegionsKey);
+        if (size == null || size == 0) {
+            return Map.of();
+        }
+        List<String> regionCodes = redisTemplate.opsForSet().pop(dirtyRegionsKey, size);
+        if (regionCodes == null || regionCodes.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> counts = redisTemplate.opsForHash().multiGet(regionsKey, new ArrayList<>(regionCodes));
+        Map<String, Long> totals = new HashMap<>(regionCodes.size());
+        for (int i = 0; i < regionCodes.size(); i++) {
+            Object count = counts.get(i);
+            if (count != null) {
+                totals.put(regionCodes.get(i), Long.parseLong((String) count));
+            }
+        }
+        return totals;
+    }
+
+    // 체크포인트에 실패한 델타를 그 사이 쌓인 델타에 다시 더하고 dirty set 에 넣는다
+    public void restoreVisitorDeltas(Map<VisitorPopEntity.VisitorPopId, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((id, delta) -> {
+            args.add(toVisitorField(id.getIpAddress(), id.getRegionCode()));
+            args.add(Long.toString(delta));
+        });
+        redisTemplate.execute(RESTORE_VISITORS_SCRIPT, List.of(visitorsKey, dirtyVisitorsKey), args.toArray());
+    }
+
+    // 체크포인트에 실패한 지역을 다시 dirty set 에 넣는다
+
+    public void markRegionsDirty(Collection<String> regionCodes) {
+        if (regionCodes.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForSet().add(dirtyRegionsKey, regionCodes.toArray(String[]::new));
+    }
+
+    // IPv6 주소에 ':' 가 포함되므로 '|' 로 구분한다
+    private static String toVisitorField(String ipAddress, String regionCode) {
+        return ipAddress + FIELD_SEPARATOR + regionCode;
+    }
+
+    private static VisitorPopEntity.VisitorPopId toVisitorPopId(String field) {
+        int separatorIndex = field.lastIndexOf(FIELD_SEPARATOR);
+        return new VisitorPopEntity.VisitorPopId(
+                field.substring(0, separatorIndex),
+                field.substring(separatorIndex + 1)
+        );
+    }
+}
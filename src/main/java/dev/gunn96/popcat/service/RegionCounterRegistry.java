@@ -0,0 +1,128 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.domain.RegionCodes;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 프로세스 내 지역별 실시간 카운터.
+ * 지역마다 stripe 개수만큼 셀을 두고, 셀 하나가 캐시라인(64 바이트) 하나를 차지하도록 배치해
+ * 인기 지역에 요청이 몰려도 스레드끼리 같은 캐시라인을 두고 경합하지 않는다.
+ * 인덱스는 {@link RegionCodes} 를 사용하고, 테이블에 없는 코드는 overflow 맵에 기록한다.
+ *
+ * 시작 시 {@link PopCounterStore} 의 누적값으로 초기화되며 이후에는 이 인스턴스로 들어온 팝만 반영한다.
+ */
+@Slf4j
+@Component
+public class RegionCounterRegistry {
+    // long 8개 = 64 바이트
+    private static final int CELL_WIDTH = 8;
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final PopCounterStore popCounterStore;
+    private final boolean enabled;
+    private final int stripes;
+    private final int stripeMask;
+    private final long[] cells;
+    private final ConcurrentHashMap<String, LongAdder> overflow = new ConcurrentHashMap<>();
+
+    public RegionCounterRegistry(
+            PopCounterStore popCounterStore,
+            @Value("${popcat.live-counters.enabled:false}") boolean enabled,
+            @Value("${popcat.live-counters.stripes:0}") int stripes
+    ) {
+        this.popCounterStore = popCounterStore;
+        this.enabled = enabled;
+        this.stripes = ceilPowerOfTwo(stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors());
+        this.stripeMask = this.stripes - 1;
+        // 앞뒤로 셀 하나씩 여유를 두어 배열 헤더나 인접 객체와 캐시라인을 공유하지 않게 한다
+        this.cells = new long[(RegionCodes.size() * this.stripes + 2) * CELL_WIDTH];
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Long> regionCounts = popCounterStore.findRegionCounts();
+        regionCounts.forEach(this::add);
+        log.info("Seeded live region counters. regions: {}, globalSum: {}", regionCounts.size(), globalSum());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void add(String regionCode, long delta) {
+        int region = RegionCodes.indexOf(regionCode);
+        if (region == RegionCodes.NOT_FOUND) {
+            overflow.computeIfAbsent(regionCode, key -> new LongAdder()).add(delta);
+            return;
+        }
+        CELLS.getAndAdd(cells, cellOffset(region, probe()), delta);
+    }
+
+    public long sum(String regionCode) {
+        int region = RegionCodes.indexOf(regionCode);
+        if (region == RegionCodes.NOT_FOUND) {
+            LongAdder adder = overflow.get(regionCode);
+            return adder == null ? 0 : adder.sum();
+        }
+        return sum(region);
+    }
+
+    public long globalSum() {
+        long sum = 0;
+        for (int region = 0; region < RegionCodes.size(); region++) {
+            sum += sum(region);
+        }
+        for (LongAdder adder : overflow.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    // 카운트가 있는 지역만 반환
+    public Map<String, Long> snapshot() {
+        Map<String, Long> regionCounts = new HashMap<>();
+        for (int region = 0; region < RegionCodes.size(); region++) {
+            long sum = sum(region);
+            if (sum != 0) {
+                regionCounts.put(RegionCodes.codeAt(region), sum);
+            }
+        }
+        overflow.forEach((regionCode, adder) -> regionCounts.put(regionCode, adder.sum()));
+        return regionCounts;
+    }
+
+    private long sum(int region) {
+        long sum = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            sum += (long) CELLS.getVolatile(cells, cellOffset(region, stripe));
+        }
+        return sum;
+    }
+
+    private int cellOffset(int region, int stripe) {
+        return (region * stripes + stripe + 1) * CELL_WIDTH;
+    }
+
+    // 스레드마다 고정된 stripe 를 고르도록 thread id 를 섞는다
+    private int probe() {
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & stripeMask;
+    }
+
+    private static int ceilPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
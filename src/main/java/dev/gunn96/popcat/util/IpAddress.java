@@ -0,0 +1,321 @@
+package dev.gunn96.popcat.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 숫자로 표현한 IPv4/IPv6 주소.
+ * 정규식이나 substring 없이 문자열 구간을 한 번 훑어 파싱하고, DNS 조회를 하지 않는다.
+ * IPv4 는 low 의 하위 32비트, IPv6 는 high/low 128비트에 담는다.
+ * ::ffff:a.b.c.d 형태의 IPv4-mapped 주소는 InetAddress 와 마찬가지로 IPv4 로 취급한다.
+ */
+public final class IpAddress {
+    private static final long INVALID = -1;
+    private static final int IPV6_GROUPS = 8;
+
+    private final long high;
+    private final long low;
+    private final boolean ipv4;
+    // 정규화된 문자열. 처음 요청될 때 만든다
+    private String text;
+
+    private IpAddress(long high, long low, boolean ipv4) {
+        this.high = high;
+        this.low = low;
+        this.ipv4 = ipv4;
+    }
+
+    public static IpAddress ofIpv4(int address) {
+        return new IpAddress(0, address & 0xFFFFFFFFL, true);
+    }
+
+    public static IpAddress ofIpv6(long high, long low) {
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            return ofIpv4((int) low);
+        }
+        return new IpAddress(high, low, false);
+    }
+
+    /**
+     * 잘못된 형식이면 null 을 반환한다.
+     */
+    public static IpAddress parse(CharSequence text) {
+        return text == null ? null : parse(text, 0, text.length());
+    }
+
+    /**
+     * text 의 [start, end) 구간을 파싱한다. 앞뒤 공백과 IPv6 를 감싼 대괄호는 무시하고,
+     * 잘못된 형식이면 null 을 반환한다.
+     */
+    public static IpAddress parse(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start >= 2 && text.charAt(start) == '[' && text.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+        if (start >= end) {
+            return null;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ':') {
+                return parseIpv6(text, start, end);
+            }
+        }
+        long address = parseIpv4(text, start, end);
+        return address == INVALID ? null : ofIpv4((int) address);
+    }
+
+    public boolean isIpv4() {
+        return ipv4;
+    }
+
+    public int ipv4Value() {
+        return (int) low;
+    }
+
+    public long high() {
+        return high;
+    }
+
+    public long low() {
+        return low;
+    }
+
+    public byte[] toBytes() {
+        if (ipv4) {
+            return new byte[]{(byte) (low >>> 24), (byte) (low >>> 16), (byte) (low >>> 8), (byte) low};
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    public InetAddress toInetAddress() {
+        try {
+            return InetAddress.getByAddress(toBytes());
+        } catch (UnknownHostException e) {
+            // 주소 길이가 4 또는 16 바이트이므로 발생하지 않는다
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * IPv4 는 점으로 구분한 10진수, IPv6 는 RFC 5952 형식(소문자, 가장 긴 0 그룹을 :: 로 축약)이다.
+     */
+    @Override
+    public String toString() {
+        String result = text;
+        if (result == null) {
+            result = ipv4 ? formatIpv4() : formatIpv6();
+            text = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IpAddress other)) {
+            return false;
+        }
+        return high == other.high && low == other.low && ipv4 == other.ipv4;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high) * 31 + Long.hashCode(low) + (ipv4 ? 1 : 0);
+    }
+
+    private static long parseIpv4(CharSequence text, int start, int end) {
+        long address = 0;
+        int dots = 0;
+        int digits = 0;
+        int octet = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return INVALID;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || ++dots > 3) {
+                    return INVALID;
+                }
+                address = address << 8 | octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return INVALID;
+            }
+        }
+        if (digits == 0 || dots != 3) {
+            return INVALID;
+        }
+        return address << 8 | octet;
+    }
+
+    private static IpAddress parseIpv6(CharSequence text, int start, int end) {
+        // :: 앞의 그룹은 위치가 정해져 있어 바로 채우고, 뒤의 그룹은 왼쪽으로 밀어 넣으며 모은다
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = start;
+        if (text.charAt(i) == ':') {
+            if (end - i < 2 || text.charAt(i + 1) != ':') {
+                return null;
+            }
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < end) {
+            int segmentEnd = i;
+            boolean dotted = false;
+            while (segmentEnd < end && text.charAt(segmentEnd) != ':') {
+                if (text.charAt(segmentEnd) == '.') {
+                    dotted = true;
+                }
+                segmentEnd++;
+            }
+            int length = segmentEnd - i;
+            if (length == 0) {
+                return null;
+            }
+
+            long segment;
+            int groups;
+            if (dotted) {
+                // 내장 IPv4 는 마지막 자리에만 올 수 있다
+                if (segmentEnd != end) {
+                    return null;
+                }
+                segment = parseIpv4(text, i, segmentEnd);
+                if (segment == INVALID) {
+                    return null;
+                }
+                groups = 2;
+            } else {
+                if (length > 4) {
+                    return null;
+                }
+                segment = 0;
+                for (int j = i; j < segmentEnd; j++) {
+                    int digit = Character.digit(text.charAt(j), 16);
+                    if (digit < 0) {
+                        return null;
+                    }
+                    segment = segment << 4 | digit;
+                }
+                groups = 1;
+            }
+
+            for (int k = groups - 1; k >= 0; k--) {
+                long group = (segment >>> (16 * k)) & 0xFFFF;
+                if (compressed) {
+                    tailHigh = tailHigh << 16 | tailLow >>> 48;
+                    tailLow = tailLow << 16 | group;
+                    tailGroups++;
+                } else if (headGroups < 4) {
+                    headHigh |= group << (16 * (3 - headGroups));
+                    headGroups++;
+                } else if (headGroups < IPV6_GROUPS) {
+                    headLow |= group << (16 * (7 - headGroups));
+                    headGroups++;
+                } else {
+                    return null;
+                }
+            }
+            if (headGroups + tailGroups > IPV6_GROUPS) {
+                return null;
+            }
+
+            if (segmentEnd == end) {
+                break;
+            }
+            // segmentEnd 는 ':' 를 가리킨다
+            if (segmentEnd + 1 < end && text.charAt(segmentEnd + 1) == ':') {
+                if (compressed) {
+                    return null;
+                }
+                compressed = true;
+                i = segmentEnd + 2;
+            } else {
+                i = segmentEnd + 1;
+                if (i == end) {
+                    return null;
+                }
+            }
+        }
+
+        int totalGroups = headGroups + tailGroups;
+        if (compressed ? totalGroups >= IPV6_GROUPS : totalGroups != IPV6_GROUPS) {
+            return null;
+        }
+        return ofIpv6(headHigh | tailHigh, headLow | tailLow);
+    }
+
+    private String formatIpv4() {
+        return new StringBuilder(15)
+                .append((low >>> 24) & 0xFF).append('.')
+                .append((low >>> 16) & 0xFF).append('.')
+                .append((low >>> 8) & 0xFF).append('.')
+                .append(low & 0xFF)
+                .toString();
+    }
+
+    private String formatIpv6() {
+        // 길이 2 이상인 가장 긴(같으면 가장 앞의) 0 그룹 연속 구간을 :: 로 축약한다
+        int bestStart = -1;
+        int bestLength = 1;
+        int runStart = -1;
+        for (int i = 0; i < IPV6_GROUPS; i++) {
+            if (group(i) == 0) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                int runLength = i - runStart + 1;
+                if (runLength > bestLength) {
+                    bestStart = runStart;
+                    bestLength = runLength;
+                }
+            } else {
+                runStart = -1;
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(39);
+        for (int i = 0; i < IPV6_GROUPS; i++) {
+            if (i == bestStart) {
+                builder.append("::");
+                i += bestLength - 1;
+                continue;
+            }
+            if (builder.length() > 0 && builder.charAt(builder.length() - 1) != ':') {
+                builder.append(':');
+            }
+            builder.append(Integer.toHexString(group(i)));
+        }
+        return builder.toString();
+    }
+
+    private int group(int index) {
+        long half = index < 4 ? high : low;
+        return (int) (half >>> (16 * (3 - (index & 3)))) & 0xFFFF;
+    }
+}
@@ -1,34 +1,78 @@
 package dev.gunn96.popcat.util;
 
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.util.StringUtils;
-
-import java.util.Arrays;
-import java.util.List;
 
 public class IpAddressUtil {
-    private static final List<String> IP_HEADERS = Arrays.asList(
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final String REAL_IP_HEADER = "X-Real-IP";
+    private static final String[] IP_HEADERS = {
             "X-Forwarded-For",
             "X-Real-IP",
             "REMOTE_ADDR"
-    );
+    };
 
     public static String extractIpAddress(HttpServletRequest request) {
-        return IP_HEADERS.stream()
-                .map(request::getHeader)
-                .filter(StringUtils::hasText)
-                .map(ipList -> ipList.split(",")[0].trim())
-                .filter(IpAddressUtil::isValidIpAddress)
-                .findFirst()
-                .orElseGet(request::getRemoteAddr);
+        IpAddress address = extractAddress(request);
+        return address != null ? address.toString() : request.getRemoteAddr();
     }
 
-    private static boolean isValidIpAddress(String ip) {
-        if (ip == null || ip.isEmpty() || ip.equalsIgnoreCase("unknown")) {
-            return false;
+    /**
+     * 프록시 헤더의 첫 번째 주소, 없으면 RemoteAddr 를 파싱해 반환한다.
+     * 헤더 값을 나누지 않고 첫 ',' 앞 구간만 파싱한다. 유효한 주소가 없으면 null 이다.
+     */
+    public static IpAddress extractAddress(HttpServletRequest request) {
+        for (String header : IP_HEADERS) {
+            String value = request.getHeader(header);
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            int end = value.indexOf(',');
+            IpAddress address = IpAddress.parse(value, 0, end < 0 ? value.length() : end);
+            if (address != null) {
+                return address;
+            }
         }
+        return IpAddress.parse(request.getRemoteAddr());
+    }
 
-        return ip.matches("^([0-9]{1,3}\\.){3}[0-9]{1,3}$") || // IPv4
-                ip.matches("^([0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}$"); // IPv6
+    public static String extractIpAddress(HttpServletRequest request, TrustedProxies trustedProxies) {
+        IpAddress address = extractAddress(request, trustedProxies);
+        return address != null ? address.toString() : request.getRemoteAddr();
+    }
+
+    /**
+     * 신뢰하는 프록시가 설정되어 있으면 RemoteAddr 에서 시작해 X-Forwarded-For 를 오른쪽부터 거슬러 올라가며
+     * 신뢰하지 않는 첫 번째 주소를 클라이언트로 본다. 클라이언트가 임의로 넣은 왼쪽 항목은 사용하지 않는다.
+     * 설정이 비어 있으면 기존처럼 헤더의 첫 번째 주소를 사용한다.
+     */
+    public static IpAddress extractAddress(HttpServletRequest request, TrustedProxies trustedProxies) {
+        if (trustedProxies == null || trustedProxies.isEmpty()) {
+            return extractAddress(request);
+        }
+        IpAddress client = IpAddress.parse(request.getRemoteAddr());
+        if (!trustedProxies.contains(client)) {
+            return client;
+        }
+
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || forwardedFor.isEmpty()) {
+            IpAddress realIp = IpAddress.parse(request.getHeader(REAL_IP_HEADER));
+            return realIp != null ? realIp : client;
+        }
+        int end = forwardedFor.length();
+        while (end > 0) {
+            int start = forwardedFor.lastIndexOf(',', end - 1) + 1;
+            IpAddress hop = IpAddress.parse(forwardedFor, start, end);
+            // 형식이 잘못된 항목부터는 신뢰할 수 없으므로 마지막으로 확인한 주소를 사용한다
+            if (hop == null) {
+                return client;
+            }
+            client = hop;
+            if (!trustedProxies.contains(hop)) {
+                return hop;
+            }
+            end = start - 1;
+        }
+        return client;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package dev.gunn96.popcat.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 신뢰하는 프록시 CIDR 목록을 비트 단위 prefix trie 로 컴파일한 것.
+ * 노드는 primitive 배열 인덱스로 표현하고, 조회는 주소 비트를 따라 내려가다 CIDR 끝 노드를 만나면 멈춘다.
+ * IPv4 와 IPv6 는 루트를 따로 둔다.
+ */
+public final class TrustedProxies {
+    public static final TrustedProxies NONE = new TrustedProxies();
+
+    private static final int ROOT_IPV4 = 0;
+    private static final int ROOT_IPV6 = 1;
+    private static final int NO_CHILD = 0;
+
+    // children[node * 2 + bit] 는 자식 노드 번호, 0 이면 자식이 없다
+    private int[] children = new int[64];
+    private boolean[] terminal = new boolean[32];
+    private int nodeCount = 2;
+    private final boolean empty;
+
+    private TrustedProxies() {
+        this.empty = true;
+    }
+
+    private TrustedProxies(List<String> cidrs) {
+        for (String cidr : cidrs) {
+            insert(cidr.trim());
+        }
+        this.children = Arrays.copyOf(children, nodeCount * 2);
+        this.terminal = Arrays.copyOf(terminal, nodeCount);
+        this.empty = cidrs.isEmpty();
+    }
+
+    /**
+     * "10.0.0.0/8", "2001:db8::/32" 형식의 목록을 컴파일한다. 길이를 생략하면 단일 주소다.
+     *
+     * @throws IllegalArgumentException 형식이 잘못된 항목이 있는 경우
+     */
+    public static TrustedProxies of(List<String> cidrs) {
+        if (cidrs == null || cidrs.stream().allMatch(cidr -> cidr == null || cidr.isBlank())) {
+            return NONE;
+        }
+        return new TrustedProxies(cidrs.stream().filter(cidr -> cidr != null && !cidr.isBlank()).toList());
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public boolean contains(IpAddress address) {
+        if (address == null || empty) {
+            return false;
+        }
+        if (address.isIpv4()) {
+            return matches(ROOT_IPV4, address.low() << 32, 0, 32);
+        }
+        return matches(ROOT_IPV6, address.high(), address.low(), 128);
+    }
+
+    // 주소의 상위 비트부터 차례로 꺼내 trie 를 내려간다. bits 는 IPv4 면 32, IPv6 면 128 이다
+    private boolean matches(int root, long high, long low, int bits) {
+        int node = root;
+        for (int i = 0; i < bits; i++) {
+            if (terminal[node]) {
+                return true;
+            }
+            long word = i < 64 ? high : low;
+            int bit = (int) (word >>> (63 - (i & 63))) & 1;
+            node = children[node * 2 + bit];
+            if (node == NO_CHILD) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    private void insert(String cidr) {
+        int slash = cidr.indexOf('/');
+        IpAddress address = IpAddress.parse(cidr, 0, slash < 0 ? cidr.length() : slash);
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid trusted proxy: " + cidr);
+        }
+        int maxLength = address.isIpv4() ? 32 : 128;
+        int prefixLength = maxLength;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(cidr.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid trusted proxy: " + cidr, e);
+            }
+            if (prefixLength < 0 || prefixLength > maxLength) {
+                throw new IllegalArgumentException("Invalid trusted proxy: " + cidr);
+            }
+        }
+
+        long high = address.isIpv4() ? address.low() << 32 : address.high();
+        long low = address.isIpv4() ? 0 : address.low();
+        int node = address.isIpv4() ? ROOT_IPV4 : ROOT_IPV6;
+        for (int i = 0; i < prefixLength; i++) {
+            long word = i < 64 ? high : low;
+            int bit = (int) (word >>> (63 - (i & 63))) & 1;
+            int slot = node * 2 + bit;
+            if (children[slot] == NO_CHILD) {
+                children[slot] = newNode();
+            }
+            node = children[slot];
+        }
+        terminal[node] = true;
+    }
+
+    private int newNode() {
+        if (nodeCount == terminal.length) {
+            terminal = Arrays.copyOf(terminal, nodeCount * 2);
+            children = Arrays.copyOf(children, nodeCount * 4);
+        }
+        return nodeCount++;
+    }
+}
@@ -0,0 +1,3 @@
+-- 리더보드 순서(count 내림차순, 동점이면 region_code 오름차순)를 인덱스 범위 탐색으로 처리한다
+DROP INDEX IF EXISTS idx_region_pops_count;
+CREATE INDEX idx_region_pops_count ON region_pops(count DESC, region_code);
@@ -0,0 +1,175 @@
+package dev.gunn96.popcat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.NestedTestConfiguration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 Tomcat 스레드 설정에서 플랫폼 스레드와 가상 스레드로 팝 요청을 처리할 때의 처리량과 p99 지연을 비교한다.
+ * 클라이언트 수를 Tomcat 최대 스레드 수보다 크게 잡아 플랫폼 스레드 모드에서 스레드가 먼저 바닥나게 한다.
+ * Docker(Testcontainers)가 필요하며 {@code ./gradlew benchmark} 로 실행한다.
+ */
+@Tag("benchmark")
+@DisplayName("팝 요청 부하 테스트")
+class PopLoadTest {
+    private static final int TOMCAT_MAX_THREADS = 32;
+    private static final int CLIENTS = 256;
+    private static final int REQUESTS_PER_CLIENT = 50;
+    private static final int WARMUP_REQUESTS_PER_CLIENT = 5;
+    private static final Map<String, Result> RESULTS = new LinkedHashMap<>();
+
+    @AfterAll
+    static void printComparison() {
+        RESULTS.forEach((mode, result) -> System.out.printf(
+                "PopLoadTest %-8s: %8.0f req/s, p50 %6.1f ms, p99 %6.1f ms, errors %d%n",
+                mode, result.throughput(), result.p50Millis(), result.p99Millis(), result.errors()));
+    }
+
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    @Import(TestcontainersConfiguration.class)
+    @ActiveProfiles("test")
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=false",
+            "server.tomcat.threads.max=" + TOMCAT_MAX_THREADS
+    })
+    class PlatformThreads {
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        @DisplayName("플랫폼 스레드")
+        void run() throws Exception {
+            RESULTS.put("platform", load(port, objectMapper));
+        }
+    }
+
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    @Import(TestcontainersConfiguration.class)
+    @ActiveProfiles("test")
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=true",
+            "server.tomcat.threads.max=" + TOMCAT_MAX_THREADS
+    })
+    class VirtualThreads {
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        @DisplayName("가상 스레드")
+        void run() throws Exception {
+            RESULTS.put("virtual", load(port, objectMapper));
+        }
+    }
+
+    // 클라이언트마다 다른 IP 로 토큰을 받은 뒤 팝 요청을 보낸다
+    private static Result load(int port, ObjectMapper objectMapper) throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/pop?count=1");
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .executor(clients)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            String[] tokens = new String[CLIENTS];
+            for (int client = 0; client < CLIENTS; client++) {
+                tokens[client] = issueToken(httpClient, objectMapper, uri, ipAddress(client));
+            }
+            run(clients, httpClient, uri, tokens, WARMUP_REQUESTS_PER_CLIENT);
+
+            long started = System.nanoTime();
+            long[][] latencies = run(clients, httpClient, uri, tokens, REQUESTS_PER_CLIENT);
+            long elapsed = System.nanoTime() - started;
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).filter(latency -> latency >= 0).sorted()
+                    .toArray();
+            int errors = CLIENTS * REQUESTS_PER_CLIENT - all.length;
+            assertThat(all).isNotEmpty();
+            return new Result(all.length * 1e9 / elapsed, percentile(all, 0.50), percentile(all, 0.99), errors);
+        }
+    }
+
+    // 실패한 요청은 지연 시간을 -1 로 기록한다
+    private static long[][] run(ExecutorService clients, HttpClient httpClient, URI uri, String[] tokens,
+                                int requestsPerClient) throws Exception {
+        long[][] latencies = new long[tokens.length][requestsPerClient];
+        Future<?>[] futures = new Future<?>[tokens.length];
+        for (int client = 0; client < tokens.length; client++) {
+            int index = client;
+            futures[client] = clients.submit(() -> {
+                for (int i = 0; i < requestsPerClient; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .header("Authorization", "Bearer " + tokens[index])
+                            .header("X-Forwarded-For", ipAddress(index))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[index][i] = response.statusCode() == 200 ? System.nanoTime() - start : -1;
+                    } catch (Exception e) {
+                        latencies[index][i] = -1;
+                    }
+                }
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return latencies;
+    }
+
+    private static String issueToken(HttpClient httpClient, ObjectMapper objectMapper, URI uri, String ipAddress)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-Forwarded-For", ipAddress)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.path("data").path("newToken").asText();
+    }
+
+    private static String ipAddress(int client) {
+        return "198.51." + (client / 250) + "." + (client % 250 + 1);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(sorted.length * fraction) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, int errors) {
+    }
+}
@@ -0,0 +1,82 @@
+package dev.gunn96.popcat.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("상한만큼 처리 중이면 거절하고, 예약분을 둔 요청은 그만큼 먼저 거절된다")
+    void tryAcquire_RespectsLimitAndReservation() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 10, 10, 2.0);
+        for (int i = 0; i < 8; i++) {
+            assertThat(limiter.tryAcquire(2)).isTrue();
+        }
+
+        // when
+        boolean lowPriority = limiter.tryAcquire(2);
+        boolean highPriority = limiter.tryAcquire(0);
+
+        // then
+        assertThat(lowPriority).isFalse();
+        assertThat(highPriority).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(9);
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("release 하면 자리가 돌아온다")
+    void release_FreesSlot() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 1, 1, 2.0);
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(0)).isFalse();
+
+        // when
+        limiter.release(System.nanoTime());
+
+        // then
+        assertThat(limiter.tryAcquire(0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("지연이 평소보다 tolerance 배 넘게 늘면 상한을 줄인다")
+    void release_DecreasesLimitWhenLatencyGrows() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 1, 100, 50, 2.0);
+        runWindow(limiter, 1_000_000L);
+        assertThat(limiter.getLimit()).isEqualTo(50);
+
+        // when
+        runWindow(limiter, 10_000_000L);
+
+        // then
+        assertThat(limiter.getLimit()).isLessThan(50);
+        assertThat(limiter.getMinRttNanos()).isBetween(1_000_000L, 2_000_000L);
+    }
+
+    @Test
+    @DisplayName("adaptive 가 꺼져 있으면 지연과 관계없이 최대 상한을 유지한다")
+    void release_FixedLimitWhenNotAdaptive() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 100, 50, 2.0);
+
+        // when
+        runWindow(limiter, 1_000_000L);
+        runWindow(limiter, 100_000_000L);
+
+        // then
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    // 지연 시간이 latencyNanos 인 요청 100 개를 처리한 것처럼 기록한다
+    private static void runWindow(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(0)).isTrue();
+            limiter.release(System.nanoTime() - latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.gunn96.popcat.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("팝 요청이 예약분을 뺀 자리를 모두 차지하면 429 로 거절하지만 리더보드 요청은 받는다")
+    void doFilter_ReservesCapacityForLeaderboard() throws ServletException, IOException {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 10, 10, 2.0);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, objectMapper, 0.2);
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire(0);
+        }
+
+        // when
+        MockHttpServletResponse popResponse = new MockHttpServletResponse();
+        MockFilterChain popChain = new MockFilterChain();
+        filter.doFilter(request("/api/v1/pop"), popResponse, popChain);
+
+        MockHttpServletResponse leaderboardResponse = new MockHttpServletResponse();
+        MockFilterChain leaderboardChain = new MockFilterChain();
+        filter.doFilter(request("/api/v1/leaderboard"), leaderboardResponse, leaderboardChain);
+
+        // then
+        assertThat(popResponse.getStatus()).isEqualTo(429);
+        assertThat(popResponse.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(popResponse.getContentAsString()).contains("SERVER_OVERLOADED");
+        assertThat(popChain.getRequest()).isNull();
+
+        assertThat(leaderboardResponse.getStatus()).isEqualTo(200);
+        assertThat(leaderboardChain.getRequest()).isNotNull();
+        assertThat(limiter.getInFlight()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("처리 중 예외가 나도 자리를 돌려준다")
+    void doFilter_ReleasesOnException() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 1, 1, 2.0);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, objectMapper, 0.0);
+        FilterChain failingChain = (request, response) -> {
+            throw new IllegalStateException("boom");
+        };
+
+        // when
+        try {
+            filter.doFilter(request("/api/v1/pop"), new MockHttpServletResponse(), failingChain);
+        } catch (Exception ignored) {
+        }
+
+        // then
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("팝, 리더보드 외 경로는 제한하지 않는다")
+    void doFilter_SkipsOtherPaths() throws ServletException, IOException {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 1, 1, 2.0);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, objectMapper, 0.0);
+        limiter.tryAcquire(0);
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        filter.doFilter(request("/"), new MockHttpServletResponse(), chain);
+
+        // then
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -1,19 +1,37 @@
 package dev.gunn96.popcat.controller;
 
+import dev.gunn96.popcat.domain.LeaderboardSnapshot;
+import dev.gunn96.popcat.domain.RegionRanking;
+import dev.gunn96.popcat.dto.response.LeaderboardDeltaResponse;
+import dev.gunn96.popcat.dto.response.LeaderboardResponse;
 import dev.gunn96.popcat.security.SecurityConfig;
 import dev.gunn96.popcat.security.jwt.JwtAuthenticationProvider;
 import dev.gunn96.popcat.security.jwt.JwtProvider;
 import dev.gunn96.popcat.service.GeoIpService;
 import dev.gunn96.popcat.service.LeaderboardService;
+import dev.gunn96.popcat.service.LeaderboardStreamService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(LeaderboardController.class)
@@ -25,16 +43,110 @@ public class LeaderboardControllerTest {
     @MockitoBean
     private LeaderboardService leaderboardService;
 
+    @MockitoBean
+    private LeaderboardStreamService leaderboardStreamService;
+
     @MockitoBean
     private GeoIpService geoIpService;
 
     @MockitoBean
     private JwtProvider jwtProvider;
 
+    @BeforeEach
+    void setUp() {
+        LeaderboardSnapshot snapshot = new LeaderboardSnapshot(
+                1L,
+                System.currentTimeMillis(),
+                new LeaderboardResponse(0, List.of()),
+                Map.of(),
+                RegionRanking.of(Map.of()),
+                "{}".getBytes(StandardCharsets.UTF_8),
+                new byte[0]
+        );
+        given(leaderboardService.getSnapshot()).willReturn(snapshot);
+    }
+
     @Test
     @DisplayName("leaderboard를 조회하는 API를 호출하면 응답을한다")
     void whenLeaderboardEndpointIsCalledItReturnsSuccessfulResponse() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @DisplayName("If-None-Match 가 현재 버전과 같으면 304를 응답한다")
+    void whenETagMatchesItReturnsNotModified() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @DisplayName("If-None-Match 목록은 항목 단위로 비교하고, 약한 태그와 * 도 받아들인다")
+    void whenETagListMatchesItReturnsNotModified() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\", W/\"1\""))
+                .andExpect(status().isNotModified());
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"11\", \"1-gz\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("gzip 을 허용하면 압축본을 별도의 ETag 로 응답한다")
+    void whenGzipIsAcceptedItReturnsGzippedBody() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-gz\""));
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("gzip;q=0 이면 * 를 허용해도 압축하지 않는다")
+    void whenGzipIsRefusedItReturnsPlainBody() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string("{}"));
+    }
+
+    @Test
+    @DisplayName("since 와 limit 을 함께 보내면 since 로 처리한다")
+    void whenSinceAndLimitAreBothGivenItReturnsDelta() throws Exception {
+        // given
+        given(leaderboardService.getLeaderboardSince(1L))
+                .willReturn(new LeaderboardDeltaResponse(2L, 10L, false, List.of()));
+
+        // when & then
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .param("since", "1")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.version").value(2));
+        verify(leaderboardService, never()).getTopRegions(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("limit 만 보내면 상위 지역을 응답한다")
+    void whenOnlyLimitIsGivenItReturnsTopRegions() throws Exception {
+        // given
+        given(leaderboardService.getTopRegions(0, 10)).willReturn(new LeaderboardResponse(10L, List.of()));
+
+        // when & then
+        mvc.perform(MockMvcRequestBuilders.get("/api/v1/leaderboard")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.globalSum").value(10));
+    }
+}
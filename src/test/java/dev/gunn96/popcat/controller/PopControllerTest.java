@@ -0,0 +1,184 @@
+package dev.gunn96.popcat.controller;
+
+import dev.gunn96.popcat.exception.PopException;
+import dev.gunn96.popcat.mapper.PopMapper;
+import dev.gunn96.popcat.security.SecurityConfig;
+import dev.gunn96.popcat.security.jwt.JwtAuthenticationProvider;
+import dev.gunn96.popcat.security.jwt.JwtProvider;
+import dev.gunn96.popcat.security.jwt.TokenClaims;
+import dev.gunn96.popcat.service.GeoIpService;
+import dev.gunn96.popcat.service.PopCounterStore;
+import dev.gunn96.popcat.service.PopIngestPipeline;
+import dev.gunn96.popcat.service.PopRateLimiter;
+import dev.gunn96.popcat.service.PopServiceImpl;
+import dev.gunn96.popcat.service.PopWindowLedger;
+import dev.gunn96.popcat.service.RegionCounterRegistry;
+import dev.gunn96.popcat.util.IpAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PopController.class)
+@Import({SecurityConfig.class, JwtAuthenticationProvider.class, PopServiceImpl.class, PopWindowLedger.class,
+        PopMapper.class})
+class PopControllerTest {
+    private static final String TOKEN = "valid.jwt.token";
+    private static final String IP_ADDRESS = "127.0.0.1";
+    private static final String REGION_CODE = "KR";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private PopCounterStore popCounterStore;
+
+    @MockitoBean
+    private RegionCounterRegistry regionCounterRegistry;
+
+    @MockitoBean
+    private PopIngestPipeline popIngestPipeline;
+
+    @MockitoBean
+    private PopRateLimiter popRateLimiter;
+
+    @MockitoBean
+    private GeoIpService geoIpService;
+
+    @MockitoBean
+    private JwtProvider jwtProvider;
+
+    @BeforeEach
+    void setUp() {
+        long now = Instant.now().getEpochSecond();
+        TokenClaims claims = TokenClaims.builder()
+                .id("id")
+                .issuer("issuer")
+                .ipAddress(IP_ADDRESS)
+                .address(IpAddress.parse(IP_ADDRESS))
+                .regionCode(REGION_CODE)
+                .issuedAt(now)
+                .notBefore(now)
+                .expiresAt(now + 3_600)
+                .build();
+        given(jwtProvider.validateToken(TOKEN, IpAddress.parse(IP_ADDRESS))).willReturn(claims);
+        given(popRateLimiter.acquire(any(), anyString(), anyLong()))
+                .willAnswer(invocation -> invocation.getArgument(2));
+    }
+
+    @Test
+    @DisplayName("비어 있는 배치는 400 으로 거절한다")
+    void addPopBatch_InvalidBody() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/api/v1/pop/batch")
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pops\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("VALIDATION_ERROR"));
+
+        verifyNoInteractions(popCounterStore);
+    }
+
+    @Test
+    @DisplayName("같은 배치를 다시 보내면 두 번 인정하지 않고 409 로 알린다")
+    void addPopBatch_ResentBatchIsNotCreditedTwice() throws Exception {
+        // given
+        String body = "{\"pops\":[{\"timestamp\":" + (System.currentTimeMillis() - 60_000) + ",\"count\":500}]}";
+
+        // when & then
+        mvc.perform(MockMvcRequestBuilders.post("/api/v1/pop/batch")
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.countAppend").value(500));
+        mvc.perform(MockMvcRequestBuilders.post("/api/v1/pop/batch")
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error.code").value("POPS_NOT_CREDITED"));
+
+        verify(popCounterStore, times(1)).addPop(IP_ADDRESS, REGION_CODE, 500L);
+    }
+
+    @Test
+    @DisplayName("text/plain 본문의 beacon 은 본문 없이 204 를 응답한다")
+    void addBeaconPops_NoContent() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/api/v1/pop/beacon")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("5 " + TOKEN))
+                .andExpect(status().isNoContent())
+                .andExpect(content().string(""));
+
+        verify(popCounterStore).addPop(IP_ADDRESS, REGION_CODE, 5L);
+    }
+
+    @Test
+    @DisplayName("토큰 없는 beacon 은 반영하지 않고 401 과 X-Pop-Token 으로 새 토큰을 준다")
+    void addBeaconPops_WithoutToken() throws Exception {
+        // given
+        given(geoIpService.findRegionCode(IpAddress.parse(IP_ADDRESS))).willReturn(REGION_CODE);
+        given(jwtProvider.generateToken(IpAddress.parse(IP_ADDRESS), REGION_CODE)).willReturn("new.token");
+
+        // when & then
+        mvc.perform(MockMvcRequestBuilders.post("/api/v1/pop/beacon")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("5"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("X-Pop-Token", "new.token"));
+
+        verifyNoInteractions(popCounterStore);
+    }
+
+    @Test
+    @DisplayName("개수가 없는 beacon 은 400 INVALID_POP_COUNT 로 거절한다")
+    void addBeaconPops_MissingCount() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/api/v1/pop/beacon")
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("INVALID_POP_COUNT"));
+
+        verifyNoInteractions(popCounterStore);
+    }
+
+    @Test
+    @DisplayName("rate limiter 가 거절한 beacon 은 429 와 Retry-After 를 응답한다")
+    void addBeaconPops_RateLimited() throws Exception {
+        // given
+        given(popRateLimiter.acquire(any(), anyString(), anyLong()))
+                .willThrow(new PopException.RateLimitExceededException(3));
+
+        // when & then
+        mvc.perform(MockMvcRequestBuilders.post("/api/v1/pop/beacon")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("5 " + TOKEN))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+
+        verifyNoInteractions(popCounterStore);
+    }
+}
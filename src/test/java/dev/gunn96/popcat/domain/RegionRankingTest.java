@@ -0,0 +1,54 @@
+package dev.gunn96.popcat.domain;
+
+import dev.gunn96.popcat.dto.response.RegionPopResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegionRankingTest {
+
+    @Test
+    @DisplayName("카운트 내림차순으로 정렬하고 페이지 단위로 조회한다")
+    void shouldSortByCountDescending() {
+        // given
+        RegionRanking ranking = RegionRanking.of(Map.of("KR", 300L, "US", 200L, "JP", 100L));
+
+        // when
+        List<RegionPopResponse> page = ranking.page(1, 10);
+
+        // then
+        assertThat(ranking.asList()).extracting(RegionPopResponse::getRegionCode).containsExactly("KR", "US", "JP");
+        assertThat(page).extracting(RegionPopResponse::getRegionCode).containsExactly("US", "JP");
+    }
+
+    @Test
+    @DisplayName("바뀐 지역만 다시 끼워 넣어도 전체 정렬과 같은 결과가 된다")
+    void shouldReinsertChangedRegions() {
+        // given
+        RegionRanking ranking = RegionRanking.of(Map.of("KR", 300L, "US", 200L, "JP", 100L));
+        Map<String, Long> updatedCounts = Map.of("KR", 300L, "US", 200L, "JP", 500L, "GB", 150L);
+
+        // when
+        RegionRanking updated = ranking.update(updatedCounts, List.of("JP", "GB"));
+
+        // then
+        assertThat(updated.asList()).isEqualTo(RegionRanking.of(updatedCounts).asList());
+        assertThat(updated.indexOf("JP", 500L)).isZero();
+    }
+
+    @Test
+    @DisplayName("자신보다 카운트가 큰 지역 수로 순위를 계산한다")
+    void shouldCalculateRank() {
+        // given
+        RegionRanking ranking = RegionRanking.of(Map.of("KR", 300L, "US", 200L, "GB", 200L, "JP", 100L));
+
+        // when & then
+        assertThat(ranking.rankOf(300L)).isEqualTo(1);
+        assertThat(ranking.rankOf(200L)).isEqualTo(2);
+        assertThat(ranking.rankOf(100L)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,79 @@
+package dev.gunn96.popcat.dto.request;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PopBeaconRequestTest {
+
+    @Test
+    @DisplayName("text/plain 본문에서 개수와 토큰을 읽는다")
+    void from_ReadsCountAndTokenFromBody() throws IOException {
+        // given
+        MockHttpServletRequest request = beacon("12\nbeacon.jwt.token\n");
+
+        // when
+        PopBeaconRequest parsed = PopBeaconRequest.from(request);
+
+        // then
+        assertThat(parsed.count()).isEqualTo(12L);
+        assertThat(parsed.token()).isEqualTo("beacon.jwt.token");
+    }
+
+    @Test
+    @DisplayName("헤더가 있으면 본문보다 헤더를 먼저 쓴다")
+    void from_PrefersHeaders() throws IOException {
+        // given
+        MockHttpServletRequest request = beacon("");
+        request.addHeader("Authorization", "Bearer header.jwt.token");
+        request.addHeader(PopBeaconRequest.COUNT_HEADER, "7");
+
+        // when
+        PopBeaconRequest parsed = PopBeaconRequest.from(request);
+
+        // then
+        assertThat(parsed.count()).isEqualTo(7L);
+        assertThat(parsed.token()).isEqualTo("header.jwt.token");
+    }
+
+    @Test
+    @DisplayName("숫자가 아닌 개수와 토큰 없는 본문은 null 로 둔다")
+    void from_InvalidCountAndMissingToken() throws IOException {
+        // given
+        MockHttpServletRequest request = beacon("many");
+
+        // when
+        PopBeaconRequest parsed = PopBeaconRequest.from(request);
+
+        // then
+        assertThat(parsed.count()).isNull();
+        assertThat(parsed.token()).isNull();
+    }
+
+    @Test
+    @DisplayName("한 번 파싱한 결과는 요청 속성에서 다시 꺼내 쓴다")
+    void from_CachesParsedRequest() throws IOException {
+        // given
+        MockHttpServletRequest request = beacon("3 cached.jwt.token");
+        PopBeaconRequest first = PopBeaconRequest.from(request);
+
+        // when
+        PopBeaconRequest second = PopBeaconRequest.from(request);
+
+        // then
+        assertThat(second).isSameAs(first);
+    }
+
+    private static MockHttpServletRequest beacon(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/pop/beacon");
+        request.setContentType("text/plain");
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
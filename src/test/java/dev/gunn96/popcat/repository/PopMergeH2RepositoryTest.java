@@ -0,0 +1,68 @@
+package dev.gunn96.popcat.repository;
+
+import dev.gunn96.popcat.entity.RegionPopEntity;
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import dev.gunn96.popcat.service.PopCountWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 내장 H2 에서 PopCountWriter 가 MERGE 쿼리로 반영하는지 확인한다
+@DataJpaTest
+@Import(PopCountWriter.class)
+class PopMergeH2RepositoryTest {
+
+    @Autowired
+    private PopCountWriter popCountWriter;
+
+    @Autowired
+    private RegionPopRepository regionPopRepository;
+
+    @Autowired
+    private VisitorPopRepository visitorPopRepository;
+
+    @Test
+    @DisplayName("H2 MERGE 로 방문자/지역 카운트를 없으면 만들고 있으면 더한다")
+    void mergeIncrementCount() {
+        // when
+        popCountWriter.addPop("127.0.0.1", "KR", 100);
+        popCountWriter.addPop("127.0.0.1", "KR", 50);
+        popCountWriter.addPops(Map.of(new VisitorPopEntity.VisitorPopId("127.0.0.2", "KR"), 10L));
+
+        // then
+        assertThat(visitorCount("127.0.0.1", "KR")).isEqualTo(150);
+        assertThat(visitorCount("127.0.0.2", "KR")).isEqualTo(10);
+        assertThat(regionCount("KR")).isEqualTo(160);
+    }
+
+    @Test
+    @DisplayName("H2 MERGE 로 기록한 누적값은 작은 값으로 되돌아가지 않는다")
+    void mergeCountIfGreater() {
+        // when
+        popCountWriter.saveRegionCounts(Map.of("KR", 100L));
+        popCountWriter.saveRegionCounts(Map.of("KR", 100L));
+        popCountWriter.saveRegionCounts(Map.of("KR", 60L));
+        VisitorPopEntity.VisitorPopId visitor = new VisitorPopEntity.VisitorPopId("127.0.0.1", "KR");
+        popCountWriter.saveVisitorCounts(Map.of(visitor, 30L));
+        popCountWriter.saveVisitorCounts(Map.of(visitor, 20L));
+
+        // then
+        assertThat(regionCount("KR")).isEqualTo(100);
+        assertThat(visitorCount("127.0.0.1", "KR")).isEqualTo(30);
+    }
+
+    private long regionCount(String regionCode) {
+        return regionPopRepository.findById(regionCode).map(RegionPopEntity::getCount).orElseThrow();
+    }
+
+    private long visitorCount(String ipAddress, String regionCode) {
+        return visitorPopRepository.findByIpAddressAndRegionCode(ipAddress, regionCode)
+                .map(VisitorPopEntity::getCount).orElseThrow();
+    }
+}
@@ -15,6 +15,8 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -82,4 +84,81 @@ public class RegionPopRepositoryTest {
         RegionPopEntity found = regionPopRepository.findById("KR").orElseThrow();
         assertThat(found.getCount()).isEqualTo(200);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("국가별 클릭수 upsert 증가")
+    void incrementCount() {
+        // when
+        regionPopRepository.incrementCount("KR", 100);
+        regionPopRepository.incrementCount("KR", 50);
+
+        // then
+        RegionPopEntity found = regionPopRepository.findById("KR").orElseThrow();
+        assertThat(found.getCount()).isEqualTo(150);
+    }
+
+    @Test
+    @DisplayName("누적값 기록은 여러 번 실행해도 같은 값을 남기고 작은 값으로 되돌아가지 않는다")
+    void saveCountIfGreater() {
+        // when
+        regionPopRepository.saveCountIfGreater("KR", 100);
+        regionPopRepository.saveCountIfGreater("KR", 100);
+        regionPopRepository.saveCountIfGreater("KR", 60);
+
+        // then
+        RegionPopEntity found = regionPopRepository.findById("KR").orElseThrow();
+        assertThat(found.getCount()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("상위 지역은 카운트 내림차순, 동점이면 지역 코드 오름차순으로 조회한다")
+    void findTopByCount() {
+        // given
+        saveRegionPops();
+
+        // when
+        List<RegionPopEntity> top = regionPopRepository.findTopByCount(3, 1);
+
+        // then
+        assertThat(top).extracting(RegionPopEntity::getRegionCode).containsExactly("JP", "KR", "US");
+    }
+
+    @Test
+    @DisplayName("자신보다 카운트가 큰 지역 수를 센다. 동점은 세지 않는다")
+    void countByCountGreaterThan() {
+        // given
+        saveRegionPops();
+
+        // when & then
+        assertThat(regionPopRepository.countByCountGreaterThan(100)).isEqualTo(1);
+        assertThat(regionPopRepository.countByCountGreaterThan(200)).isZero();
+        assertThat(regionPopRepository.countByCountGreaterThan(0)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("바로 위/아래 지역은 동점인 지역도 지역 코드 순서로 찾는다")
+    void findAboveAndBelow() {
+        // given
+        saveRegionPops();
+
+        // when & then
+        assertThat(regionPopRepository.findAbove("KR", 100)).map(RegionPopEntity::getRegionCode).hasValue("JP");
+        assertThat(regionPopRepository.findBelow("KR", 100)).map(RegionPopEntity::getRegionCode).hasValue("US");
+        assertThat(regionPopRepository.findAbove("JP", 100)).map(RegionPopEntity::getRegionCode).hasValue("CN");
+        assertThat(regionPopRepository.findBelow("US", 100)).map(RegionPopEntity::getRegionCode).hasValue("GB");
+        assertThat(regionPopRepository.findAbove("CN", 200)).isEmpty();
+        assertThat(regionPopRepository.findBelow("GB", 50)).isEmpty();
+    }
+
+    // CN 200, JP 100, KR 100, US 100, GB 50
+    private void saveRegionPops() {
+        regionPopRepository.saveAll(List.of(
+                RegionPopEntity.builder().regionCode("KR").count(100).build(),
+                RegionPopEntity.builder().regionCode("US").count(100).build(),
+                RegionPopEntity.builder().regionCode("JP").count(100).build(),
+                RegionPopEntity.builder().regionCode("CN").count(200).build(),
+                RegionPopEntity.builder().regionCode("GB").count(50).build()
+        ));
+        regionPopRepository.flush();
+    }
+}
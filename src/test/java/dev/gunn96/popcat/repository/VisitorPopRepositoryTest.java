@@ -113,4 +113,41 @@ public class VisitorPopRepositoryTest {
         // then
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("방문자 클릭수 upsert 증가")
+    void incrementCount() {
+        // given
+        VisitorPopEntity.VisitorPopId id = VisitorPopEntity.VisitorPopId.builder()
+                .ipAddress("192.168.1.1")
+                .regionCode("KR")
+                .build();
+
+        // when
+        visitorPopRepository.incrementCount("192.168.1.1", "KR", 50);
+        visitorPopRepository.incrementCount("192.168.1.1", "KR", 30);
+
+        // then
+        VisitorPopEntity found = visitorPopRepository.findById(id).orElseThrow();
+        assertThat(found.getCount()).isEqualTo(80);
+    }
+
+    @Test
+    @DisplayName("방문자 누적값 기록은 여러 번 실행해도 같은 값을 남기고 작은 값으로 되돌아가지 않는다")
+    void saveCountIfGreater() {
+        // given
+        VisitorPopEntity.VisitorPopId id = VisitorPopEntity.VisitorPopId.builder()
+                .ipAddress("192.168.1.1")
+                .regionCode("KR")
+                .build();
+
+        // when
+        visitorPopRepository.saveCountIfGreater("192.168.1.1", "KR", 80);
+        visitorPopRepository.saveCountIfGreater("192.168.1.1", "KR", 80);
+        visitorPopRepository.saveCountIfGreater("192.168.1.1", "KR", 30);
+
+        // then
+        VisitorPopEntity found = visitorPopRepository.findById(id).orElseThrow();
+        assertThat(found.getCount()).isEqualTo(80);
+    }
+}
@@ -0,0 +1,137 @@
+package dev.gunn96.popcat.security.jwt;
+
+import dev.gunn96.popcat.exception.JwtException;
+import dev.gunn96.popcat.util.IpAddress;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryTokenCodecTest {
+    private static final byte[] SECRET = "thisIsTestSecretKeyForBinaryTokenCodecTest".getBytes(StandardCharsets.UTF_8);
+    private static final String ISSUER = "issuer";
+
+    private final BinaryTokenCodec codec = new BinaryTokenCodec(SECRET, ISSUER);
+
+    @Test
+    @DisplayName("발급한 토큰을 검증하면 같은 클레임을 돌려준다")
+    void shouldRoundTrip() {
+        // given
+        long now = Instant.now().getEpochSecond();
+        String token = codec.issue(IpAddress.parse("203.0.113.9"), "KR", now, now + 3600);
+
+        // when
+        TokenClaims claims = codec.verify(token, IpAddress.parse("203.0.113.9"));
+
+        // then
+        assertThat(token).hasSizeLessThan(64).doesNotContain(".");
+        assertThat(codec.supports(token)).isTrue();
+        assertThat(claims.issuer()).isEqualTo(ISSUER);
+        assertThat(claims.ipAddress()).isEqualTo("203.0.113.9");
+        assertThat(claims.address()).isEqualTo(IpAddress.parse("203.0.113.9"));
+        assertThat(claims.regionCode()).isEqualTo("KR");
+        assertThat(claims.issuedAt()).isEqualTo(now);
+        assertThat(claims.notBefore()).isEqualTo(now - TokenCodec.NOT_BEFORE_SKEW_SECONDS);
+        assertThat(claims.expiresAt()).isEqualTo(now + 3600);
+    }
+
+    @Test
+    @DisplayName("IPv6 주소도 64자 이하 토큰으로 발급한다")
+    void shouldIssueIpv6Token() {
+        // given
+        long now = Instant.now().getEpochSecond();
+        String token = codec.issue(IpAddress.parse("2001:db8::1"), "UNKNOWN", now, now + 3600);
+
+        // when
+        TokenClaims claims = codec.verify(token, IpAddress.parse("2001:db8::1"));
+
+        // then
+        assertThat(token).hasSizeLessThan(64);
+        assertThat(claims.regionCode()).isEqualTo("UNKNOWN");
+    }
+
+    @Test
+    @DisplayName("다른 IP로 검증하면 실패한다")
+    void shouldRejectWrongIpAddress() {
+        // given
+        long now = Instant.now().getEpochSecond();
+        String token = codec.issue(IpAddress.parse("203.0.113.9"), "KR", now, now + 3600);
+
+        // when & then
+        assertThatThrownBy(() -> codec.verify(token, IpAddress.parse("203.0.113.10")))
+                .isInstanceOf(JwtException.InvalidTokenException.class);
+    }
+
+    @Test
+    @DisplayName("변조되었거나 다른 서버가 발급한 토큰은 거부한다")
+    void shouldRejectTamperedToken() {
+        // given
+        long now = Instant.now().getEpochSecond();
+        String token = codec.issue(IpAddress.parse("203.0.113.9"), "KR", now, now + 3600);
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        BinaryTokenCodec otherServer = new BinaryTokenCodec(SECRET, "other-issuer");
+
+        // when & then
+        assertThatThrownBy(() -> codec.verify(tampered, IpAddress.parse("203.0.113.9")))
+                .isInstanceOf(JwtException.InvalidTokenException.class);
+        assertThatThrownBy(() -> otherServer.verify(token, IpAddress.parse("203.0.113.9")))
+                .isInstanceOf(JwtException.InvalidTokenException.class);
+    }
+
+    @Test
+    @DisplayName("만료된 토큰은 ExpiredJwtException 을 던진다")
+    void shouldRejectExpiredToken() {
+        // given
+        long now = Instant.now().getEpochSecond();
+        String token = codec.issue(IpAddress.parse("203.0.113.9"), "KR", now - 10, now - 5);
+
+        // when & then
+        assertThatThrownBy(() -> codec.verify(token, IpAddress.parse("203.0.113.9")))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    @DisplayName("테이블에 없는 지역 코드는 발급하지 않는다")
+    void shouldNotIssueUnknownRegionCode() {
+        // given
+        long now = Instant.now().getEpochSecond();
+
+        // when & then
+        assertThat(codec.issue(IpAddress.parse("203.0.113.9"), "EU", now, now + 3600)).isNull();
+    }
+
+    @Test
+    @DisplayName("여러 가상 스레드가 Mac 을 나눠 써도 모든 토큰을 올바르게 서명한다")
+    void shouldSignConcurrently() throws Exception {
+        // given
+        long now = Instant.now().getEpochSecond();
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // when
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                IpAddress address = IpAddress.parse("10.0." + (i / 256) + "." + (i % 256));
+                results.add(executor.submit(() -> {
+                    String token = codec.issue(address, "KR", now, now + 3600);
+                    return codec.verify(token, address).address().equals(address);
+                }));
+            }
+        }
+
+        // then
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package dev.gunn96.popcat.security.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gunn96.popcat.service.GeoIpService;
+import dev.gunn96.popcat.util.TrustedProxies;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * AuthenticationManager 를 거치는 기존 경로와 fast path 의 요청당 필터 비용을 비교한다.
+ * 토큰 검증 캐시를 켠 상태라 서명 검증보다 인증 체인 자체의 비용이 드러난다.
+ * {@code ./gradlew benchmark} 로 실행한다.
+ */
+@Tag("benchmark")
+class JwtAuthenticationFilterBenchmarkTest {
+    private static final String SECRET = "thisIsBenchmarkSecretKeyForJwtFilterthisIsBenchmarkSecretKeyForJwtFilter";
+    private static final String IP_ADDRESS = "203.0.113.9";
+    private static final int ITERATIONS = 200_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    @DisplayName("기존 인증 경로와 fast path 의 요청당 비용을 비교한다")
+    void compareAuthenticationPaths() throws Exception {
+        JwtProvider jwtProvider = new JwtProvider(SECRET, "127.0.0.1:50001", 3600, 1000);
+        GeoIpService geoIpService = null;
+        ObjectMapper objectMapper = new ObjectMapper();
+        ProviderManager authenticationManager = new ProviderManager(new JwtAuthenticationProvider(jwtProvider));
+
+        JwtAuthenticationFilter managerFilter = new JwtAuthenticationFilter(authenticationManager,
+                jwtProvider, geoIpService, objectMapper, TrustedProxies.NONE, null, false, null);
+        JwtAuthenticationFilter fastPathFilter = new JwtAuthenticationFilter(authenticationManager,
+                jwtProvider, geoIpService, objectMapper, TrustedProxies.NONE, null, true, null);
+
+        String token = jwtProvider.generateToken(IP_ADDRESS, "KR");
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            measure(managerFilter, token);
+            measure(fastPathFilter, token);
+        }
+        long managerNanos = measure(managerFilter, token);
+        long fastPathNanos = measure(fastPathFilter, token);
+
+        System.out.printf("JwtAuthenticationFilter: manager path %.0f ns/req, fast path %.0f ns/req%n",
+                (double) managerNanos / ITERATIONS, (double) fastPathNanos / ITERATIONS);
+    }
+
+    private static long measure(JwtAuthenticationFilter filter, String token) throws Exception {
+        FilterChain chain = (request, response) -> {
+        };
+        long elapsed = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/pop");
+            request.setServletPath("/api/v1/pop");
+            request.setRemoteAddr(IP_ADDRESS);
+            request.addHeader("Authorization", "Bearer " + token);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            long startedAt = System.nanoTime();
+            filter.doFilter(request, response, chain);
+            elapsed += System.nanoTime() - startedAt;
+            SecurityContextHolder.clearContext();
+        }
+        return elapsed;
+    }
+}
@@ -2,8 +2,11 @@ package dev.gunn96.popcat.security.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.gunn96.popcat.common.ApiResponse;
+import dev.gunn96.popcat.dto.request.PopBeaconRequest;
 import dev.gunn96.popcat.dto.response.PopResponse;
 import dev.gunn96.popcat.service.GeoIpService;
+import dev.gunn96.popcat.util.IpAddress;
+import dev.gunn96.popcat.util.TrustedProxies;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,19 +22,25 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringReader;
+import java.time.Duration;
 import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class JwtAuthenticationFilterTest {
+    private static final IpAddress ADDRESS = IpAddress.parse("127.0.0.1");
 
     @Mock
     private AuthenticationManager authenticationManager;
@@ -65,7 +74,11 @@ class JwtAuthenticationFilterTest {
                 authenticationManager,
                 jwtProvider,
                 geoIpService,
-                objectMapper
+                objectMapper,
+                TrustedProxies.NONE,
+                null,
+                false,
+                null
         );
         SecurityContextHolder.clearContext();
     }
@@ -93,7 +106,7 @@ class JwtAuthenticationFilterTest {
         given(request.getHeader("Authorization")).willReturn(bearerToken);
         given(request.getHeader("X-Forwarded-For")).willReturn(ipAddress);
         given(authenticationManager.authenticate(any(JwtAuthenticationToken.class)))
-                .willReturn(new JwtAuthenticationToken(claims, ipAddress, Collections.emptyList()));
+                .willReturn(new JwtAuthenticationToken(claims, ADDRESS, Collections.emptyList()));
 
         // when
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -115,8 +128,8 @@ class JwtAuthenticationFilterTest {
 
         given(request.getHeader("Authorization")).willReturn(null);
         given(request.getHeader("X-Forwarded-For")).willReturn(ipAddress);
-        given(geoIpService.findRegionCodeByIpAddress(ipAddress)).willReturn(regionCode);
-        given(jwtProvider.generateToken(ipAddress, regionCode)).willReturn(newToken);
+        given(geoIpService.findRegionCode(ADDRESS)).willReturn(regionCode);
+        given(jwtProvider.generateToken(ADDRESS, regionCode)).willReturn(newToken);
         given(response.getWriter()).willReturn(writer);
 
         // when
@@ -157,4 +170,123 @@ class JwtAuthenticationFilterTest {
         ));
         verifyNoInteractions(filterChain);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("같은 IP의 토큰 없는 요청이 반복되면 최근 발급한 토큰을 재사용한다")
+    void doFilterInternal_NoTokenReusesRecentlyIssuedToken() throws ServletException, IOException {
+        // given
+        String ipAddress = "127.0.0.1";
+        String regionCode = "KR";
+        IssuedTokenCache issuedTokenCache = new IssuedTokenCache(Duration.ofMinutes(1), 100);
+        JwtAuthenticationFilter reusingFilter = new JwtAuthenticationFilter(
+                authenticationManager, jwtProvider, geoIpService, objectMapper,
+                TrustedProxies.NONE, issuedTokenCache, false, null
+        );
+
+        given(request.getHeader("Authorization")).willReturn(null);
+        given(request.getHeader("X-Forwarded-For")).willReturn(ipAddress);
+        given(geoIpService.findRegionCode(ADDRESS)).willReturn(regionCode);
+        given(jwtProvider.generateToken(ADDRESS, regionCode)).willReturn("new.token");
+        given(response.getWriter()).willReturn(writer);
+
+        // when
+        reusingFilter.doFilterInternal(request, response, filterChain);
+        reusingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(jwtProvider, times(1)).generateToken(ADDRESS, regionCode);
+        verify(geoIpService, times(1)).findRegionCode(ADDRESS);
+        assertThat(issuedTokenCache.getSuppressedCount()).isEqualTo(1);
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    @DisplayName("fast path 에서는 AuthenticationManager 없이 검증하고 클레임을 요청 속성에 담는다")
+    void doFilterInternal_FastPath() throws ServletException, IOException {
+        // given
+        String token = "valid.jwt.token";
+        String ipAddress = "127.0.0.1";
+        TokenClaims claims = TokenClaims.builder()
+                .id("id")
+                .issuer("issuer")
+                .ipAddress(ipAddress)
+                .regionCode("KR")
+                .build();
+        JwtAuthenticationFilter fastPathFilter = new JwtAuthenticationFilter(
+                authenticationManager, jwtProvider, geoIpService, objectMapper,
+                TrustedProxies.NONE, null, true, null
+        );
+
+        given(request.getHeader("Authorization")).willReturn("Bearer " + token);
+        given(request.getHeader("X-Forwarded-For")).willReturn(ipAddress);
+        given(jwtProvider.validateToken(token, ADDRESS)).willReturn(claims);
+
+        // when
+        fastPathFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(request).setAttribute(JwtAuthenticationFilter.TOKEN_CLAIMS_ATTRIBUTE, claims);
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(authenticationManager);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    @DisplayName("같은 토큰을 한 구간에 두 번 쓰면 두 번째 요청은 429 로 거절한다")
+    void doFilterInternal_RateLimitedToken() throws ServletException, IOException {
+        // given
+        String token = "valid.jwt.token";
+        String ipAddress = "127.0.0.1";
+        TokenClaims claims = TokenClaims.builder()
+                .id("limited-id")
+                .ipAddress(ipAddress)
+                .regionCode("KR")
+                .build();
+        JwtAuthenticationFilter limitedFilter = new JwtAuthenticationFilter(
+                authenticationManager, jwtProvider, geoIpService, objectMapper,
+                TrustedProxies.NONE, null, true, new TokenRateLimiter(true, 60_000, 1_000, 0.001)
+        );
+
+        given(request.getHeader("Authorization")).willReturn("Bearer " + token);
+        given(request.getHeader("X-Forwarded-For")).willReturn(ipAddress);
+        given(jwtProvider.validateToken(token, ADDRESS)).willReturn(claims);
+        given(response.getWriter()).willReturn(writer);
+
+        // when
+        limitedFilter.doFilterInternal(request, response, filterChain);
+        limitedFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(request, response);
+        verify(response).setStatus(429);
+        verify(response).setHeader(eq("Retry-After"), any());
+        verify(objectMapper).writeValue(any(PrintWriter.class), argThat(body ->
+                body instanceof ApiResponse && !((ApiResponse<?>) body).isSuccess()
+        ));
+    }
+
+    @Test
+    @DisplayName("토큰 없는 beacon 요청은 팝을 반영하지 않고 본문 없이 401 과 X-Pop-Token 헤더로 새 토큰을 준다")
+    void doFilterInternal_BeaconWithoutToken() throws ServletException, IOException {
+        // given
+        String ipAddress = "127.0.0.1";
+        String regionCode = "KR";
+        String newToken = "new.token";
+
+        given(request.getServletPath()).willReturn("/api/v1/pop/beacon");
+        given(request.getHeader("Authorization")).willReturn(null);
+        given(request.getHeader(PopBeaconRequest.COUNT_HEADER)).willReturn(null);
+        given(request.getReader()).willReturn(new BufferedReader(new StringReader("5")));
+        given(request.getHeader("X-Forwarded-For")).willReturn(ipAddress);
+        given(geoIpService.findRegionCode(ADDRESS)).willReturn(regionCode);
+        given(jwtProvider.generateToken(ADDRESS, regionCode)).willReturn(newToken);
+
+        // when
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(response).setHeader(PopBeaconRequest.TOKEN_HEADER, newToken);
+        verifyNoInteractions(objectMapper, filterChain);
+    }
+}
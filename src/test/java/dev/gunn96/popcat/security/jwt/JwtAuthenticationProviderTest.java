@@ -1,5 +1,6 @@
 package dev.gunn96.popcat.security.jwt;
 
+import dev.gunn96.popcat.util.IpAddress;
 import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -34,6 +35,7 @@ class JwtAuthenticationProviderTest {
         // given
         String token = "valid.jwt.token";
         String ipAddress = "127.0.0.1";
+        IpAddress address = IpAddress.parse(ipAddress);
         String regionCode = "KR";
         TokenClaims expectedClaims = TokenClaims.builder()
                 .id("id")
@@ -45,8 +47,8 @@ class JwtAuthenticationProviderTest {
                 .expiresAt(0)
                 .build();
 
-        JwtAuthenticationToken authRequest = new JwtAuthenticationToken(token, ipAddress);
-        given(jwtProvider.validateToken(token, ipAddress)).willReturn(expectedClaims);
+        JwtAuthenticationToken authRequest = new JwtAuthenticationToken(token, address);
+        given(jwtProvider.validateToken(token, address)).willReturn(expectedClaims);
 
         // when
         Authentication result = authenticationProvider.authenticate(authRequest);
@@ -54,7 +56,7 @@ class JwtAuthenticationProviderTest {
         // then
         assertThat(result).isInstanceOf(JwtAuthenticationToken.class);
         assertThat(result.isAuthenticated()).isTrue();
-        assertThat(((JwtAuthenticationToken) result).getIpAddress()).isEqualTo(ipAddress);
+        assertThat(((JwtAuthenticationToken) result).getIpAddress()).isEqualTo(address);
         assertThat(result.getPrincipal()).isEqualTo(expectedClaims);
     }
 
@@ -64,10 +66,11 @@ class JwtAuthenticationProviderTest {
         // given
         String token = "invalid.jwt.token";
         String ipAddress = "127.0.0.1";
+        IpAddress address = IpAddress.parse(ipAddress);
         String regionCode = "KR";
-        JwtAuthenticationToken authRequest = new JwtAuthenticationToken(token, ipAddress);
+        JwtAuthenticationToken authRequest = new JwtAuthenticationToken(token, address);
 
-        given(jwtProvider.validateToken(token, ipAddress))
+        given(jwtProvider.validateToken(token, address))
                 .willThrow(new JwtException("Invalid token")); // 여기를 수정
 
         // when & then
@@ -98,4 +98,97 @@ class JwtProviderTest {
                 .isInstanceOf(ExpiredJwtException.class)
                 .hasMessageContaining("expired");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("검증된 토큰은 캐시에서 같은 클레임을 반환한다")
+    void validateToken_CachedToken() {
+        // given
+        JwtProvider cachingProvider = new JwtProvider(SECRET, SERVER_ADDRESS, 60, 100);
+        String token = cachingProvider.generateToken(IP_ADDRESS, REGION_CODE);
+        TokenClaims first = cachingProvider.validateToken(token, IP_ADDRESS);
+
+        // when
+        TokenClaims second = cachingProvider.validateToken(token, IP_ADDRESS);
+
+        // then
+        assertThat(second).isEqualTo(first);
+        assertThat(cachingProvider.getVerifiedTokenCacheStats().hitCount()).isEqualTo(1);
+        assertThat(cachingProvider.getVerifiedTokenCacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("검증된 토큰이라도 다른 IP로 요청하면 캐시를 사용하지 않는다")
+    void validateToken_CachedTokenWithWrongIpAddress() {
+        // given
+        JwtProvider cachingProvider = new JwtProvider(SECRET, SERVER_ADDRESS, 60, 100);
+        String token = cachingProvider.generateToken(IP_ADDRESS, REGION_CODE);
+        cachingProvider.validateToken(token, IP_ADDRESS);
+
+        // when, then
+        assertThatThrownBy(() -> cachingProvider.validateToken(token, "192.168.0.1"))
+                .isInstanceOf(JwtException.InvalidTokenException.class);
+    }
+
+    @Test
+    @DisplayName("검증에 실패한 토큰은 캐시하지 않는다")
+    void validateToken_InvalidTokenIsNotCached() {
+        // given
+        JwtProvider cachingProvider = new JwtProvider(SECRET, SERVER_ADDRESS, 60, 100);
+
+        // when
+        assertThatThrownBy(() -> cachingProvider.validateToken("invalid.token.value", IP_ADDRESS))
+                .isInstanceOf(JwtException.InvalidTokenException.class);
+
+        // then
+        assertThat(cachingProvider.getVerifiedTokenCacheSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("캐시된 토큰도 만료 시각이 지나면 만료 예외를 던진다")
+    void validateToken_CachedTokenExpires() throws InterruptedException {
+        // given
+        JwtProvider cachingProvider = new JwtProvider(SECRET, SERVER_ADDRESS, EXPIRATION_SECONDS, 100);
+        String token = cachingProvider.generateToken(IP_ADDRESS, REGION_CODE);
+        cachingProvider.validateToken(token, IP_ADDRESS);
+
+        // when
+        Thread.sleep((EXPIRATION_SECONDS + 1) * 1000);
+
+        // then
+        assertThatThrownBy(() -> cachingProvider.validateToken(token, IP_ADDRESS))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    @DisplayName("바이너리 형식으로 발급하고, 전환 중에도 두 형식을 모두 검증한다")
+    void validateToken_BinaryFormat() {
+        // given
+        JwtProvider binaryProvider = new JwtProvider(SECRET, SERVER_ADDRESS, 60, 0, JwtProvider.FORMAT_BINARY);
+        String binaryToken = binaryProvider.generateToken(IP_ADDRESS, REGION_CODE);
+        String jwtToken = new JwtProvider(SECRET, SERVER_ADDRESS, 60).generateToken(IP_ADDRESS, REGION_CODE);
+
+        // when
+        TokenClaims binaryClaims = binaryProvider.validateToken(binaryToken, IP_ADDRESS);
+        TokenClaims jwtClaims = binaryProvider.validateToken(jwtToken, IP_ADDRESS);
+
+        // then
+        assertThat(binaryToken).doesNotContain(".").hasSizeLessThan(64);
+        assertThat(binaryClaims.regionCode()).isEqualTo(REGION_CODE);
+        assertThat(binaryClaims.issuer()).isEqualTo(serverIdentifier);
+        assertThat(jwtClaims.regionCode()).isEqualTo(REGION_CODE);
+    }
+
+    @Test
+    @DisplayName("바이너리 형식에 담을 수 없는 지역 코드는 JWT 로 발급한다")
+    void generateToken_BinaryFormatFallsBackToJwt() {
+        // given
+        JwtProvider binaryProvider = new JwtProvider(SECRET, SERVER_ADDRESS, 60, 0, JwtProvider.FORMAT_BINARY);
+
+        // when
+        String token = binaryProvider.generateToken(IP_ADDRESS, "EU");
+
+        // then
+        assertThat(token).contains(".");
+        assertThat(binaryProvider.validateToken(token, IP_ADDRESS).regionCode()).isEqualTo("EU");
+    }
+}
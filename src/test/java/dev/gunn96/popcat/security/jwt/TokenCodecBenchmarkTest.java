@@ -0,0 +1,57 @@
+package dev.gunn96.popcat.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JWT 형식과 바이너리 형식의 발급/검증 비용과 토큰 길이를 나란히 측정한다.
+ * {@code ./gradlew benchmark} 로 실행한다.
+ */
+@Tag("benchmark")
+class TokenCodecBenchmarkTest {
+    private static final String SECRET = "thisIsBenchmarkSecretKeyForTokenCodecthisIsBenchmarkSecretKeyForTokenCodec";
+    private static final String SERVER_ADDRESS = "127.0.0.1:50001";
+    private static final String IP_ADDRESS = "203.0.113.9";
+    private static final String REGION_CODE = "KR";
+    private static final int ITERATIONS = 50_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    @DisplayName("JWT 와 바이너리 토큰의 발급/검증 시간을 비교한다")
+    void compareTokenFormats() {
+        // 검증 캐시는 끄고 순수 서명/검증 비용만 잰다
+        JwtProvider jwtProvider = new JwtProvider(SECRET, SERVER_ADDRESS, 3600, 0, JwtProvider.FORMAT_JWT);
+        JwtProvider binaryProvider = new JwtProvider(SECRET, SERVER_ADDRESS, 3600, 0, JwtProvider.FORMAT_BINARY);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            measure(jwtProvider);
+            measure(binaryProvider);
+        }
+        long[] jwt = measure(jwtProvider);
+        long[] binary = measure(binaryProvider);
+
+        System.out.printf("JWT    : sign %.0f ns/op, verify %.0f ns/op, %d chars%n",
+                (double) jwt[0] / ITERATIONS, (double) jwt[1] / ITERATIONS,
+                jwtProvider.generateToken(IP_ADDRESS, REGION_CODE).length());
+        System.out.printf("binary : sign %.0f ns/op, verify %.0f ns/op, %d chars%n",
+                (double) binary[0] / ITERATIONS, (double) binary[1] / ITERATIONS,
+                binaryProvider.generateToken(IP_ADDRESS, REGION_CODE).length());
+    }
+
+    private static long[] measure(JwtProvider provider) {
+        String[] tokens = new String[ITERATIONS];
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            tokens[i] = provider.generateToken(IP_ADDRESS, REGION_CODE);
+        }
+        long signNanos = System.nanoTime() - startedAt;
+
+        startedAt = System.nanoTime();
+        for (String token : tokens) {
+            provider.validateToken(token, IP_ADDRESS);
+        }
+        long verifyNanos = System.nanoTime() - startedAt;
+        return new long[]{signNanos, verifyNanos};
+    }
+}
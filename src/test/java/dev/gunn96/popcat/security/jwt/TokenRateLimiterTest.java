@@ -0,0 +1,96 @@
+package dev.gunn96.popcat.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRateLimiterTest {
+
+    @Test
+    @DisplayName("같은 구간에서 같은 토큰은 처음 한 번만 통과한다")
+    void tryAcquire_RejectsSecondUseInSameInterval() {
+        // given
+        TokenRateLimiter tokenRateLimiter = new TokenRateLimiter(true, 60_000, 1_000, 0.001);
+
+        // when
+        boolean first = tokenRateLimiter.tryAcquire("token-1");
+        boolean second = tokenRateLimiter.tryAcquire("token-1");
+        boolean other = tokenRateLimiter.tryAcquire("token-2");
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(other).isTrue();
+        assertThat(tokenRateLimiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("구간 경계를 넘어도 직전 구간에 쓴 토큰은 받지 않는다")
+    void tryAcquire_RejectsAcrossIntervalBoundary() throws InterruptedException {
+        // given
+        long intervalMillis = 200;
+        TokenRateLimiter tokenRateLimiter = new TokenRateLimiter(true, intervalMillis, 1_000, 0.001);
+        // 구간이 막 시작된 시점에 기록해야 한 구간 뒤가 바로 다음 구간이 된다
+        while (System.currentTimeMillis() % intervalMillis > 20) {
+            Thread.onSpinWait();
+        }
+        assertThat(tokenRateLimiter.tryAcquire("token-1")).isTrue();
+
+        // when
+        Thread.sleep(intervalMillis);
+
+        // then
+        assertThat(tokenRateLimiter.tryAcquire("token-1")).isFalse();
+        assertThat(tokenRateLimiter.retryAfterSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("두 구간이 지나면 같은 토큰을 다시 받는다")
+    void tryAcquire_AcceptsAgainAfterInterval() throws InterruptedException {
+        // given
+        TokenRateLimiter tokenRateLimiter = new TokenRateLimiter(true, 50, 1_000, 0.001);
+        assertThat(tokenRateLimiter.tryAcquire("token-1")).isTrue();
+
+        // when
+        Thread.sleep(120);
+
+        // then
+        assertThat(tokenRateLimiter.tryAcquire("token-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("예상 토큰 수만큼 채워도 오탐 비율은 설정값 근처에 머문다")
+    void tryAcquire_FalsePositiveRateStaysNearConfigured() {
+        // given
+        // 조회도 기록을 남기므로 조회할 토큰 수까지 포함해 크기를 잡는다
+        int expected = 10_000;
+        TokenRateLimiter tokenRateLimiter = new TokenRateLimiter(true, 600_000, expected * 2, 0.01);
+        for (int i = 0; i < expected; i++) {
+            tokenRateLimiter.tryAcquire("seen-" + i);
+        }
+
+        // when
+        int falsePositives = 0;
+        for (int i = 0; i < expected; i++) {
+            if (!tokenRateLimiter.tryAcquire("fresh-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // then
+        assertThat(falsePositives).isLessThan(expected * 3 / 100);
+    }
+
+    @Test
+    @DisplayName("비활성화되어 있으면 항상 통과한다")
+    void tryAcquire_Disabled() {
+        // given
+        TokenRateLimiter tokenRateLimiter = new TokenRateLimiter(false, 1_000, 1_000, 0.001);
+
+        // when & then
+        assertThat(tokenRateLimiter.tryAcquire("token-1")).isTrue();
+        assertThat(tokenRateLimiter.tryAcquire("token-1")).isTrue();
+        assertThat(tokenRateLimiter.getRejectedCount()).isZero();
+    }
+}
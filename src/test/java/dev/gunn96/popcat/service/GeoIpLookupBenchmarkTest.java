@@ -0,0 +1,90 @@
+package dev.gunn96.popcat.service;
+
+import com.maxmind.db.Reader;
+import com.maxmind.geoip2.DatabaseReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * MaxMind reader 와 구간 테이블의 조회 비용을 나란히 측정한다.
+ * {@code ./gradlew benchmark} 로 실행한다.
+ */
+@Tag("benchmark")
+class GeoIpLookupBenchmarkTest {
+
+    private static final String TEST_DATABASE = "geoip/GeoLite2-Country.mmdb";
+    private static final int ADDRESS_COUNT = 1 << 16;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 10;
+
+    @Test
+    @DisplayName("MaxMind reader 와 구간 테이블의 조회 시간을 비교한다")
+    void compareLookupEngines() throws Exception {
+        ClassPathResource resource = new ClassPathResource(TEST_DATABASE);
+        assumeTrue(resource.exists(), "GeoIP test database is not available");
+
+        DatabaseReader databaseReader;
+        GeoIpRangeTable table;
+        try (InputStream inputStream = resource.getInputStream()) {
+            databaseReader = new DatabaseReader.Builder(inputStream).build();
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            table = GeoIpRangeTable.fromDatabase(new Reader(inputStream));
+        }
+
+        Random random = new Random(7);
+        String[] addresses = new String[ADDRESS_COUNT];
+        for (int i = 0; i < ADDRESS_COUNT; i++) {
+            addresses[i] = (random.nextInt(223) + 1) + "." + random.nextInt(256) + "."
+                    + random.nextInt(256) + "." + random.nextInt(256);
+        }
+
+        try (databaseReader) {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                runReader(databaseReader, addresses);
+                runTable(table, addresses);
+            }
+            long readerNanos = 0;
+            long tableNanos = 0;
+            for (int round = 0; round < MEASURE_ROUNDS; round++) {
+                long startedAt = System.nanoTime();
+                runReader(databaseReader, addresses);
+                readerNanos += System.nanoTime() - startedAt;
+
+                startedAt = System.nanoTime();
+                runTable(table, addresses);
+                tableNanos += System.nanoTime() - startedAt;
+            }
+            long lookups = (long) ADDRESS_COUNT * MEASURE_ROUNDS;
+            System.out.printf("GeoIP lookup: reader %.1f ns/op, range table %.1f ns/op (%d IPv4 ranges)%n",
+                    (double) readerNanos / lookups, (double) tableNanos / lookups, table.ipv4RangeCount());
+        }
+    }
+
+    private static int runReader(DatabaseReader reader, String[] addresses) throws Exception {
+        int hash = 0;
+        for (String address : addresses) {
+            String code = reader.tryCountry(InetAddress.getByName(address))
+                    .map(response -> response.getCountry().getIsoCode())
+                    .orElse("UNKNOWN");
+            hash += code == null ? 0 : code.hashCode();
+        }
+        return hash;
+    }
+
+    private static int runTable(GeoIpRangeTable table, String[] addresses) throws Exception {
+        int hash = 0;
+        for (String address : addresses) {
+            hash += table.lookup(InetAddress.getByName(address).getAddress()).hashCode();
+        }
+        return hash;
+    }
+}
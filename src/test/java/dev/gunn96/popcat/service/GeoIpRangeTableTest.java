@@ -0,0 +1,140 @@
+package dev.gunn96.popcat.service;
+
+import com.maxmind.db.Reader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GeoIpRangeTableTest {
+
+    private static final String TEST_DATABASE = "geoip/GeoLite2-Country.mmdb";
+
+    @Test
+    @DisplayName("구간 사이의 빈 주소는 UNKNOWN 으로 조회된다")
+    void shouldFillGapsWithUnknown() throws Exception {
+        // given
+        GeoIpRangeTable table = new GeoIpRangeTable.Builder()
+                .add(address("1.0.0.0"), 24, "AU")
+                .add(address("1.0.2.0"), 23, "CN")
+                .add(address("8.8.8.0"), 24, "US")
+                .build();
+
+        // when & then
+        assertThat(table.lookup(address("0.255.255.255"))).isEqualTo("UNKNOWN");
+        assertThat(table.lookup(address("1.0.0.7"))).isEqualTo("AU");
+        assertThat(table.lookup(address("1.0.1.1"))).isEqualTo("UNKNOWN");
+        assertThat(table.lookup(address("1.0.3.255"))).isEqualTo("CN");
+        assertThat(table.lookup(address("8.8.8.8"))).isEqualTo("US");
+        assertThat(table.lookup(address("8.8.9.0"))).isEqualTo("UNKNOWN");
+        assertThat(table.lookup(address("255.255.255.255"))).isEqualTo("UNKNOWN");
+    }
+
+    @Test
+    @DisplayName("인접한 같은 국가 구간은 하나로 합친다")
+    void shouldMergeAdjacentRanges() throws Exception {
+        // given
+        GeoIpRangeTable table = new GeoIpRangeTable.Builder()
+                .add(address("10.0.0.0"), 9, "KR")
+                .add(address("10.128.0.0"), 9, "KR")
+                .build();
+
+        // when & then
+        assertThat(table.ipv4RangeCount()).isEqualTo(3);
+        assertThat(table.lookup(address("10.200.0.1"))).isEqualTo("KR");
+        assertThat(table.lookup(address("11.0.0.0"))).isEqualTo("UNKNOWN");
+    }
+
+    @Test
+    @DisplayName("IPv6 구간과 IPv4-mapped 주소를 조회한다")
+    void shouldLookupIpv6Ranges() throws Exception {
+        // given
+        GeoIpRangeTable table = new GeoIpRangeTable.Builder()
+                .add(address("2001:4860::"), 32, "US")
+                .add(address("2400:cb00::"), 32, "JP")
+                .add(address("::203.0.113.0"), 120, "KR")
+                .build();
+
+        // when & then
+        assertThat(table.lookup(address("2001:4860:4860::8888"))).isEqualTo("US");
+        assertThat(table.lookup(address("2001:4861::1"))).isEqualTo("UNKNOWN");
+        assertThat(table.lookup(address("2400:cb00:ffff::1"))).isEqualTo("JP");
+        assertThat(table.lookup(address("ffff::1"))).isEqualTo("UNKNOWN");
+        assertThat(table.lookup(address("203.0.113.9"))).isEqualTo("KR");
+        assertThat(table.lookup(ipv4Mapped("203.0.113.9"))).isEqualTo("KR");
+    }
+
+    @Test
+    @DisplayName("오름차순이 아닌 네트워크가 들어오면 테이블을 만들지 않는다")
+    void shouldRejectUnorderedNetworks() throws Exception {
+        // given
+        GeoIpRangeTable.Builder builder = new GeoIpRangeTable.Builder()
+                .add(address("8.8.8.0"), 24, "US");
+
+        // when & then
+        assertThatThrownBy(() -> builder.add(address("1.0.0.0"), 24, "AU"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("테스트 DB 를 펼친 테이블은 MaxMind reader 와 같은 국가 코드를 반환한다")
+    void shouldMatchMaxMindReader() throws Exception {
+        ClassPathResource resource = new ClassPathResource(TEST_DATABASE);
+        assumeTrue(resource.exists(), "GeoIP test database is not available");
+
+        // given
+        GeoIpRangeTable table;
+        try (InputStream inputStream = resource.getInputStream()) {
+            table = GeoIpRangeTable.fromDatabase(new Reader(inputStream));
+        }
+        Random random = new Random(42);
+
+        try (InputStream inputStream = resource.getInputStream();
+             Reader reader = new Reader(inputStream)) {
+            for (int i = 0; i < 200_000; i++) {
+                byte[] bytes = new byte[i % 4 == 0 ? 16 : 4];
+                random.nextBytes(bytes);
+                if (bytes.length == 16) {
+                    // 할당된 전역 유니캐스트 대역(2000::/3)에서 주로 뽑는다
+                    bytes[0] = (byte) (0x20 | (bytes[0] & 0x1F));
+                }
+                InetAddress address = InetAddress.getByAddress(bytes);
+
+                // when
+                String expected = expectedCode(reader, address);
+                String actual = table.lookup(bytes);
+
+                // then
+                assertThat(actual).as("lookup of %s", address.getHostAddress()).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static String expectedCode(Reader reader, InetAddress address) throws Exception {
+        GeoIpRangeTable.CountryRecord record = reader.get(address, GeoIpRangeTable.CountryRecord.class);
+        if (record == null || record.isoCode() == null) {
+            return "UNKNOWN";
+        }
+        return record.isoCode();
+    }
+
+    private static byte[] address(String ipAddress) throws Exception {
+        return InetAddress.getByName(ipAddress).getAddress();
+    }
+
+    private static byte[] ipv4Mapped(String ipAddress) throws Exception {
+        byte[] ipv4 = address(ipAddress);
+        byte[] mapped = new byte[16];
+        mapped[10] = (byte) 0xFF;
+        mapped[11] = (byte) 0xFF;
+        System.arraycopy(ipv4, 0, mapped, 12, 4);
+        return mapped;
+    }
+}
@@ -0,0 +1,126 @@
+package dev.gunn96.popcat.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.maxmind.geoip2.DatabaseReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 테스트용 DB 를 임시 디렉터리에 복사해 파일 교체를 흉내 낸다
+class GeoIpServiceReloadTest {
+    private static final String DATABASE_RESOURCE = "geoip/GeoLite2-Country.mmdb";
+    private static final String DATABASE_FILE = "GeoLite2-Country.mmdb";
+
+    @TempDir
+    Path tempDir;
+
+    private Path databaseFile;
+    private GeoIpServiceImpl geoIpService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        databaseFile = tempDir.resolve(DATABASE_FILE);
+        copyDatabase(databaseFile);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (geoIpService != null) {
+            geoIpService.cleanup();
+        }
+    }
+
+    @Test
+    @DisplayName("파일 경로면 mmap 으로 열고 변경 감시를 시작한다")
+    void initialize_FileModeStartsWatcher() {
+        // when
+        geoIpService = start(true);
+
+        // then
+        assertThat(ReflectionTestUtils.getField(geoIpService, "reader")).isNotNull();
+        assertThat(ReflectionTestUtils.getField(geoIpService, "watchService")).isNotNull();
+        assertThat(geoIpService.findRegionCodeByIpAddress("8.8.8.8")).isEqualTo("US");
+    }
+
+    @Test
+    @DisplayName("DB 파일을 교체하면 reader 를 바꾸고 캐시를 비우며, 이전 reader 는 다음 교체까지 남겨 둔다")
+    void watcher_ReplacesReaderOnFileSwap() throws Exception {
+        // given
+        geoIpService = start(true);
+        DatabaseReader before = reader();
+        assertThat(geoIpService.findRegionCodeByIpAddress("8.8.8.8")).isEqualTo("US");
+        assertThat(geoIpService.getLookupCacheSize()).isEqualTo(1);
+
+        // when
+        Path staged = tempDir.resolve(DATABASE_FILE + ".tmp");
+        copyDatabase(staged);
+        Files.move(staged, databaseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // then
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!(reader() != before && geoIpService.getLookupCacheSize() == 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(reader()).isNotSameAs(before);
+        assertThat(ReflectionTestUtils.getField(geoIpService, "retiredReader")).isSameAs(before);
+        assertThat(geoIpService.getLookupCacheSize()).isZero();
+        // 교체된 파일을 mmap 으로 계속 참조하므로 진행 중인 조회는 이전 reader 로도 끝낼 수 있다
+        assertThat(before.tryCountry(InetAddress.getByName("8.8.8.8"))).isPresent();
+        assertThat(geoIpService.findRegionCodeByIpAddress("8.8.8.8")).isEqualTo("US");
+    }
+
+    @Test
+    @DisplayName("같은 /24 대역의 두 IP 는 한 번만 DB 를 조회한다")
+    void findRegionCode_SharesPrefixCacheEntry() {
+        // given
+        geoIpService = start(false);
+
+        // when
+        String first = geoIpService.findRegionCodeByIpAddress("8.8.8.8");
+        String second = geoIpService.findRegionCodeByIpAddress("8.8.8.4");
+
+        // then
+        CacheStats stats = geoIpService.getLookupCacheStats();
+        assertThat(first).isEqualTo("US");
+        assertThat(second).isEqualTo("US");
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(geoIpService.getLookupCacheSize()).isEqualTo(1);
+    }
+
+    private GeoIpServiceImpl start(boolean watchEnabled) {
+        GeoIpServiceImpl service = new GeoIpServiceImpl(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(service, "databasePath", databaseFile.toUri().toString());
+        ReflectionTestUtils.setField(service, "watchEnabled", watchEnabled);
+        ReflectionTestUtils.setField(service, "reloadDelayMillis", 50L);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 1_000L);
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 3_600L);
+        service.initialize();
+        return service;
+    }
+
+    private DatabaseReader reader() {
+        return (DatabaseReader) ReflectionTestUtils.getField(geoIpService, "reader");
+    }
+
+    private static void copyDatabase(Path target) throws IOException {
+        try (InputStream inputStream = new ClassPathResource(DATABASE_RESOURCE).getInputStream()) {
+            Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
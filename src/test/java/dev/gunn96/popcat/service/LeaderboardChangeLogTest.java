@@ -0,0 +1,41 @@
+package dev.gunn96.popcat.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardChangeLogTest {
+
+    @Test
+    @DisplayName("since 이후 버전에서 바뀐 지역 코드를 합쳐서 반환한다")
+    void shouldMergeChangedRegionsSinceVersion() {
+        // given
+        LeaderboardChangeLog changeLog = new LeaderboardChangeLog(4);
+        changeLog.append(11, List.of("KR"));
+        changeLog.append(12, List.of("US", "KR"));
+        changeLog.append(13, List.of("JP"));
+
+        // when & then
+        assertThat(changeLog.changedBetween(11, 13)).containsExactlyInAnyOrder("US", "KR", "JP");
+        assertThat(changeLog.changedBetween(12, 13)).containsExactly("JP");
+        assertThat(changeLog.changedBetween(13, 13)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("링에서 밀려난 버전이나 알 수 없는 버전이면 null 을 반환한다")
+    void shouldReturnNullWhenVersionIsTooOld() {
+        // given
+        LeaderboardChangeLog changeLog = new LeaderboardChangeLog(2);
+        changeLog.append(11, List.of("KR"));
+        changeLog.append(12, List.of("US"));
+        changeLog.append(13, List.of("JP"));
+
+        // when & then
+        assertThat(changeLog.changedBetween(11, 13)).containsExactlyInAnyOrder("US", "JP");
+        assertThat(changeLog.changedBetween(10, 13)).isNull();
+        assertThat(changeLog.changedBetween(14, 13)).isNull();
+    }
+}
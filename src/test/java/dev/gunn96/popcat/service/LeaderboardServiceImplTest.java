@@ -0,0 +1,144 @@
+package dev.gunn96.popcat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gunn96.popcat.domain.LeaderboardSnapshot;
+import dev.gunn96.popcat.repository.RegionPopRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceImplTest {
+    private static final int THREADS = 8;
+
+    @Mock
+    private PopCounterStore popCounterStore;
+
+    @Mock
+    private RegionCounterRegistry regionCounterRegistry;
+
+    @Mock
+    private RegionPopRepository regionPopRepository;
+
+    private LeaderboardServiceImpl leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService = new LeaderboardServiceImpl(popCounterStore, regionCounterRegistry, regionPopRepository,
+                new ObjectMapper().findAndRegisterModules(), 64);
+        ReflectionTestUtils.setField(leaderboardService, "maxStalenessMillis", 60_000L);
+        ReflectionTestUtils.setField(leaderboardService, "maxPageSize", 300);
+        ReflectionTestUtils.setField(leaderboardService, "rankingSource", "snapshot");
+    }
+
+    @Test
+    @DisplayName("카운트가 바뀔 때마다 버전이 1씩 오르고, 바뀌지 않으면 그대로다")
+    void refreshSnapshot_IncrementsVersionOnChange() {
+        // given
+        given(popCounterStore.findRegionCounts()).willReturn(
+                Map.of("KR", 1L),
+                Map.of("KR", 2L),
+                Map.of("KR", 2L, "US", 1L),
+                Map.of("KR", 2L, "US", 1L));
+
+        // when
+        List<Long> versions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            leaderboardService.refreshSnapshot();
+            versions.add(leaderboardService.getSnapshot().version());
+        }
+
+        // then
+        long first = versions.get(0);
+        assertThat(versions).containsExactly(first, first + 1, first + 2, first + 2);
+    }
+
+    @Test
+    @DisplayName("스냅샷이 없을 때 동시에 들어온 요청은 한 번만 만든다")
+    void getSnapshot_ConcurrentColdMissesBuildOnce() throws Exception {
+        // given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(popCounterStore.findRegionCounts()).willAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of("KR", 1L);
+        });
+
+        // when
+        List<LeaderboardSnapshot> snapshots = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<LeaderboardSnapshot>> futures = new ArrayList<>();
+            futures.add(executor.submit(leaderboardService::getSnapshot));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < THREADS; i++) {
+                futures.add(executor.submit(leaderboardService::getSnapshot));
+            }
+            release.countDown();
+            for (Future<LeaderboardSnapshot> future : futures) {
+                snapshots.add(future.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        // then
+        verify(popCounterStore, times(1)).findRegionCounts();
+        assertThat(snapshots).allSatisfy(snapshot -> assertThat(snapshot).isSameAs(snapshots.get(0)));
+    }
+
+    @Test
+    @DisplayName("갱신 중에 만료된 스냅샷을 요청하면 기다리지 않고 기존 스냅샷을 받으며 다시 만들지 않는다")
+    void getSnapshot_StaleMissesDuringRefreshBuildOnce() throws Exception {
+        // given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(popCounterStore.findRegionCounts())
+                .willReturn(Map.of("KR", 1L))
+                .willAnswer(invocation -> {
+                    entered.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Map.of("KR", 2L);
+                });
+        LeaderboardSnapshot stale = leaderboardService.getSnapshot();
+        ReflectionTestUtils.setField(leaderboardService, "maxStalenessMillis", -1L);
+
+        // when
+        List<LeaderboardSnapshot> snapshots = new ArrayList<>();
+        LeaderboardSnapshot refreshed;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            Future<LeaderboardSnapshot> refreshing = executor.submit(leaderboardService::getSnapshot);
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<LeaderboardSnapshot>> futures = new ArrayList<>();
+            for (int i = 1; i < THREADS; i++) {
+                futures.add(executor.submit(leaderboardService::getSnapshot));
+            }
+            for (Future<LeaderboardSnapshot> future : futures) {
+                snapshots.add(future.get(5, TimeUnit.SECONDS));
+            }
+            release.countDown();
+            refreshed = refreshing.get(5, TimeUnit.SECONDS);
+        }
+
+        // then
+        verify(popCounterStore, times(2)).findRegionCounts();
+        assertThat(snapshots).allSatisfy(snapshot -> assertThat(snapshot).isSameAs(stale));
+        assertThat(refreshed.version()).isEqualTo(stale.version() + 1);
+    }
+}
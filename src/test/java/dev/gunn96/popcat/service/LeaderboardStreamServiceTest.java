@@ -0,0 +1,182 @@
+package dev.gunn96.popcat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gunn96.popcat.domain.LeaderboardSnapshot;
+import dev.gunn96.popcat.domain.RegionRanking;
+import dev.gunn96.popcat.dto.response.LeaderboardResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardStreamServiceTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    private LeaderboardStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        streamService = new LeaderboardStreamService(leaderboardService, new ObjectMapper(), 60_000, 1, false) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.shutdown();
+    }
+
+    @Test
+    @DisplayName("새 구독자는 먼저 전체 스냅샷을 받는다")
+    void subscribe_SendsFullSnapshotFirst() throws Exception {
+        // given
+        given(leaderboardService.getSnapshot()).willReturn(snapshot(1, Map.of("KR", 1L, "US", 1L)));
+
+        // when
+        RecordingEmitter emitter = (RecordingEmitter) streamService.subscribe();
+
+        // then
+        String event = emitter.sent.poll(5, TimeUnit.SECONDS);
+        assertThat(event).startsWith("event:snapshot\nid:1\n").contains("full=true");
+        assertThat(streamService.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("느린 구독자는 밀린 스냅샷을 쌓지 않고 합쳐진 delta 하나를 받는다")
+    void publish_SlowSubscriberReceivesMergedDelta() throws Exception {
+        // given
+        given(leaderboardService.getSnapshot()).willReturn(
+                snapshot(1, Map.of("KR", 1L, "US", 1L)),
+                snapshot(2, Map.of("KR", 2L, "US", 1L)),
+                snapshot(3, Map.of("KR", 2L, "US", 2L)),
+                snapshot(4, Map.of("KR", 3L, "US", 2L)));
+        RecordingEmitter emitter = (RecordingEmitter) streamService.subscribe();
+        CountDownLatch release = new CountDownLatch(1);
+        emitter.gate = release;
+
+        // when
+        streamService.publish();
+        assertThat(emitter.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        streamService.publish();
+        streamService.publish();
+        release.countDown();
+
+        // then
+        assertThat(emitter.sent.poll(5, TimeUnit.SECONDS)).startsWith("event:snapshot\nid:1\n");
+        assertThat(emitter.sent.poll(5, TimeUnit.SECONDS)).startsWith("event:delta\nid:2\n");
+        String merged = emitter.sent.poll(5, TimeUnit.SECONDS);
+        assertThat(merged).startsWith("event:delta\nid:4\n")
+                .contains("\"regionCode\":\"KR\",\"count\":3")
+                .contains("\"regionCode\":\"US\",\"count\":2");
+        assertThat(emitter.sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("전송에 실패한 구독자는 목록에서 제거한다")
+    void publish_RemovesFailedSubscriber() throws Exception {
+        // given
+        given(leaderboardService.getSnapshot()).willReturn(
+                snapshot(1, Map.of("KR", 1L)),
+                snapshot(2, Map.of("KR", 2L)));
+        RecordingEmitter emitter = (RecordingEmitter) streamService.subscribe();
+        emitter.failing = true;
+
+        // when
+        streamService.publish();
+
+        // then
+        assertThat(emitter.failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(streamService.subscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("시간이 초과된 구독자는 목록에서 제거한다")
+    void subscribe_RemovesTimedOutSubscriber() {
+        // given
+        given(leaderboardService.getSnapshot()).willReturn(snapshot(1, Map.of("KR", 1L)));
+        RecordingEmitter emitter = (RecordingEmitter) streamService.subscribe();
+        assertThat(streamService.subscriberCount()).isEqualTo(1);
+
+        // when
+        emitter.timeoutCallback.run();
+
+        // then
+        assertThat(streamService.subscriberCount()).isZero();
+    }
+
+    private static LeaderboardSnapshot snapshot(long version, Map<String, Long> regionCounts) {
+        long globalSum = regionCounts.values().stream().mapToLong(Long::longValue).sum();
+        return new LeaderboardSnapshot(
+                version,
+                System.currentTimeMillis(),
+                new LeaderboardResponse(globalSum, List.of()),
+                regionCounts,
+                RegionRanking.of(regionCounts),
+                new byte[0],
+                new byte[0]
+        );
+    }
+
+    // 보낸 이벤트를 문자열로 기록하고, 필요하면 delta 전송을 막거나 실패시킨다
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+        private volatile boolean failing;
+        private volatile Runnable timeoutCallback;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(data -> event.append(data.getData()));
+            CountDownLatch current = gate;
+            if (current != null && event.toString().startsWith("event:delta")) {
+                gate = null;
+                blocked.countDown();
+                try {
+                    current.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(event.toString());
+        }
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            super.onTimeout(callback);
+            timeoutCallback = callback;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            super.completeWithError(ex);
+            failed.countDown();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PopIngestPipelineTest {
+
+    @Mock
+    private PopCounterStore popCounterStore;
+
+    private PopIngestPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("ack 모드에서는 워커가 저장소에 반영한 뒤 돌아온다")
+    void addPop_WaitsForAcknowledgement() {
+        // given
+        pipeline = start(2, 100);
+
+        // when
+        pipeline.addPop("127.0.0.1", "KR", 10, true);
+
+        // then
+        verify(popCounterStore).addPops(Map.of(new VisitorPopEntity.VisitorPopId("127.0.0.1", "KR"), 10L));
+    }
+
+    @Test
+    @DisplayName("한 배치에 들어온 같은 방문자의 팝은 하나로 합쳐 반영한다")
+    @SuppressWarnings("unchecked")
+    void submit_MergesBatch() throws Exception {
+        // given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<VisitorPopEntity.VisitorPopId, Long> applied = new HashMap<>();
+        willAnswer(invocation -> {
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            ((Map<VisitorPopEntity.VisitorPopId, Long>) invocation.getArgument(0))
+                    .forEach((id, delta) -> applied.merge(id, delta, Long::sum));
+            return null;
+        }).given(popCounterStore).addPops(anyMap());
+        pipeline = start(1, 100);
+
+        // when
+        CompletableFuture<Void> first = pipeline.submit("127.0.0.1", "KR", 1);
+        blocked.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> second = pipeline.submit("127.0.0.1", "KR", 2);
+        CompletableFuture<Void> third = pipeline.submit("127.0.0.1", "KR", 3);
+        release.countDown();
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+
+        // then
+        ArgumentCaptor<Map<VisitorPopEntity.VisitorPopId, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(popCounterStore, atLeastOnce()).addPops(captor.capture());
+        assertThat(captor.getAllValues()).hasSize(2);
+        assertThat(applied).containsEntry(new VisitorPopEntity.VisitorPopId("127.0.0.1", "KR"), 6L);
+    }
+
+    @Test
+    @DisplayName("fire-and-forget 모드에서는 큐에 넣고 바로 돌아오고, 워커가 나중에 반영한다")
+    void addPop_FireAndForget() {
+        // given
+        pipeline = start(2, 100);
+
+        // when
+        pipeline.addPop("127.0.0.1", "KR", 10, false);
+
+        // then
+        verify(popCounterStore, timeout(5_000)).addPops(anyMap());
+    }
+
+    @Test
+    @DisplayName("워커가 반영에 실패하면 ack 를 기다리던 호출자에게 예외가 전달된다")
+    void addPop_PropagatesFailure() {
+        // given
+        willThrow(new IllegalStateException("db down")).given(popCounterStore).addPops(any());
+        pipeline = start(1, 100);
+
+        // when & then
+        assertThatThrownBy(() -> pipeline.addPop("127.0.0.1", "KR", 10, true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+    }
+
+    @Test
+    @DisplayName("ack 시간이 초과돼도 예외 없이 돌아오고, 큐에 남은 팝은 나중에 반영된다")
+    void addPop_AckTimeoutReturnsQueued() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).given(popCounterStore).addPops(anyMap());
+        pipeline = new PopIngestPipeline(popCounterStore, true, 1, 100, 10, 50, false);
+        pipeline.start();
+
+        // when
+        pipeline.addPop("127.0.0.1", "KR", 10, true);
+        release.countDown();
+
+        // then
+        verify(popCounterStore, timeout(5_000))
+                .addPops(Map.of(new VisitorPopEntity.VisitorPopId("127.0.0.1", "KR"), 10L));
+    }
+
+    @Test
+    @DisplayName("멈춘 뒤에 들어온 팝은 호출 스레드에서 바로 반영하고 ack 를 완료한다")
+    void submit_AfterStopWritesDirectly() {
+        // given
+        pipeline = start(2, 100);
+        pipeline.stop();
+
+        // when
+        CompletableFuture<Void> ack = pipeline.submit("127.0.0.1", "KR", 10);
+
+        // then
+        assertThat(ack).isCompleted();
+        verify(popCounterStore).addPop("127.0.0.1", "KR", 10);
+        assertThat(pipeline.queueDepth(PopIngestPipeline.partitionOf("KR", 2))).isZero();
+    }
+
+    @Test
+    @DisplayName("비활성화되어 있으면 호출 스레드에서 바로 저장소에 기록한다")
+    void submit_DisabledWritesDirectly() {
+        // given
+        PopIngestPipeline disabled = new PopIngestPipeline(popCounterStore, false, 2, 100, 10, 1_000, false);
+        disabled.start();
+
+        // when
+        CompletableFuture<Void> ack = disabled.submit("127.0.0.1", "KR", 10);
+
+        // then
+        assertThat(ack).isCompleted();
+        verify(popCounterStore).addPop("127.0.0.1", "KR", 10);
+        assertThat(disabled.partitionCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("같은 지역은 항상 같은 파티션으로 간다")
+    void partitionOf_IsStable() {
+        // when & then
+        assertThat(PopIngestPipeline.partitionOf("KR", 8)).isEqualTo(PopIngestPipeline.partitionOf("KR", 8));
+        assertThat(PopIngestPipeline.partitionOf("KR", 8)).isBetween(0, 7);
+        assertThat(PopIngestPipeline.partitionOf(null, 8)).isBetween(0, 7);
+    }
+
+    private PopIngestPipeline start(int partitions, int queueCapacity) {
+        PopIngestPipeline started = new PopIngestPipeline(popCounterStore, true, partitions, queueCapacity, 10,
+                5_000, false);
+        started.start();
+        return started;
+    }
+}
@@ -0,0 +1,92 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.exception.PopException;
+import dev.gunn96.popcat.util.IpAddress;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PopRateLimiterTest {
+
+    @Test
+    @DisplayName("clamp 모드에서는 버킷에 남은 만큼만 허용하고, 비면 Retry-After 와 함께 거절한다")
+    void acquire_ClampMode() {
+        // given
+        PopRateLimiter limiter = new PopRateLimiter(true, 1, 100, PopRateLimiter.MODE_CLAMP, 1);
+
+        // when
+        long first = limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 80);
+        long second = limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 80);
+
+        // then
+        assertThat(first).isEqualTo(80);
+        assertThat(second).isEqualTo(20);
+        assertThatThrownBy(() -> limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 1))
+                .isInstanceOf(PopException.RateLimitExceededException.class)
+                .satisfies(e -> assertThat(((PopException.RateLimitExceededException) e).getRetryAfterSeconds())
+                        .isEqualTo(1));
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("reject 모드에서는 요청한 개수를 모두 허용할 수 없으면 거절한다")
+    void acquire_RejectMode() {
+        // given
+        PopRateLimiter limiter = new PopRateLimiter(true, 10, 100, PopRateLimiter.MODE_REJECT, 1);
+        limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 80);
+
+        // when & then
+        assertThatThrownBy(() -> limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 80))
+                .isInstanceOf(PopException.RateLimitExceededException.class)
+                .satisfies(e -> assertThat(((PopException.RateLimitExceededException) e).getRetryAfterSeconds())
+                        .isEqualTo(6));
+        assertThat(limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 20)).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("IP 와 지역이 다르면 버킷을 따로 쓴다")
+    void acquire_SeparateBucketsPerVisitor() {
+        // given
+        PopRateLimiter limiter = new PopRateLimiter(true, 1, 100, PopRateLimiter.MODE_CLAMP, 1);
+        limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 100);
+
+        // when & then
+        assertThat(limiter.acquire(IpAddress.parse("127.0.0.2"), "KR", 100)).isEqualTo(100);
+        assertThat(limiter.acquire(IpAddress.parse("127.0.0.1"), "JP", 100)).isEqualTo(100);
+        assertThat(limiter.acquire(IpAddress.parse("2001:db8::1"), "KR", 100)).isEqualTo(100);
+        assertThat(limiter.acquire(IpAddress.parse("2001:db8::2"), "KR", 100)).isEqualTo(100);
+        assertThat(limiter.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("버킷이 다시 가득 차면 정리 대상이 된다")
+    void evictIdle_RemovesRefilledBuckets() throws InterruptedException {
+        // given
+        PopRateLimiter limiter = new PopRateLimiter(true, 1_000, 10, PopRateLimiter.MODE_CLAMP, 1);
+        for (int i = 0; i < 1_000; i++) {
+            limiter.acquire(IpAddress.parse("10.0." + (i / 256) + "." + (i % 256)), "KR", 10);
+        }
+        assertThat(limiter.size()).isEqualTo(1_000);
+
+        // when
+        Thread.sleep(50);
+        limiter.evictIdle();
+
+        // then
+        assertThat(limiter.size()).isZero();
+        assertThat(limiter.acquire(IpAddress.parse("10.0.0.0"), "KR", 10)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("비활성화되어 있으면 요청한 개수를 그대로 허용한다")
+    void acquire_Disabled() {
+        // given
+        PopRateLimiter limiter = new PopRateLimiter(false, 1, 1, PopRateLimiter.MODE_CLAMP, 1);
+
+        // when & then
+        assertThat(limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 800)).isEqualTo(800);
+        assertThat(limiter.acquire(IpAddress.parse("127.0.0.1"), "KR", 800)).isEqualTo(800);
+    }
+}
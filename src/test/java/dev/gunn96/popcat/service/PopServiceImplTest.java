@@ -0,0 +1,237 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.dto.request.PopBatchRequest;
+import dev.gunn96.popcat.dto.response.PopResponse;
+import dev.gunn96.popcat.exception.PopException;
+import dev.gunn96.popcat.mapper.PopMapper;
+import dev.gunn96.popcat.security.jwt.JwtProvider;
+import dev.gunn96.popcat.security.jwt.TokenClaims;
+import dev.gunn96.popcat.util.IpAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PopServiceImplTest {
+    private static final String IP_ADDRESS = "127.0.0.1";
+    private static final String REGION_CODE = "KR";
+    private static final long LIFETIME_SECONDS = 100;
+
+    @Mock
+    private PopCounterStore popCounterStore;
+
+    @Mock
+    private RegionCounterRegistry regionCounterRegistry;
+
+    @Mock
+    private JwtProvider jwtProvider;
+
+    @Mock
+    private PopIngestPipeline popIngestPipeline;
+
+    private PopServiceImpl popService;
+
+    @BeforeEach
+    void setUp() {
+        popService = new PopServiceImpl(popCounterStore, regionCounterRegistry, jwtProvider, new PopMapper(),
+                popIngestPipeline, new PopWindowLedger(30_000, 600_000, 800, 10_000));
+        ReflectionTestUtils.setField(popService, "maxPopsAppendPerVisitor", 800L);
+        ReflectionTestUtils.setField(popService, "renewBeforeFraction", 0.2);
+    }
+
+    @Test
+    @DisplayName("만료까지 충분히 남은 토큰은 갱신하지 않는다")
+    void shouldNotRenewFreshToken() {
+        // given
+        TokenClaims claims = claimsExpiringIn(90);
+
+        // when
+        PopResponse response = popService.addPops(claims, 10);
+
+        // then
+        assertThat(response.newToken()).isNull();
+        assertThat(response.countAppend()).isEqualTo(10);
+        verify(popCounterStore).addPop(IP_ADDRESS, REGION_CODE, 10);
+        verifyNoInteractions(jwtProvider);
+    }
+
+    @Test
+    @DisplayName("만료가 가까운 토큰은 새 토큰으로 갱신한다")
+    void shouldRenewTokenNearExpiry() {
+        // given
+        TokenClaims claims = claimsExpiringIn(10);
+        given(jwtProvider.generateToken(IpAddress.parse(IP_ADDRESS), REGION_CODE)).willReturn("renewed.token");
+
+        // when
+        PopResponse response = popService.addPops(claims, 1000);
+
+        // then
+        assertThat(response.newToken()).isEqualTo("renewed.token");
+        assertThat(response.countAppend()).isEqualTo(800);
+    }
+
+    @Test
+    @DisplayName("배치는 시간 구간마다 maxPopsAppendPerVisitor 까지만 센다")
+    void countBatch_CapsEachWindow() {
+        // given
+        long window = System.currentTimeMillis() / 30_000 * 30_000 - 60_000;
+        List<PopBatchRequest.Entry> entries = List.of(
+                new PopBatchRequest.Entry(window, 500L),
+                new PopBatchRequest.Entry(window + 1_000, 500L),
+                new PopBatchRequest.Entry(window + 30_000, 300L)
+        );
+
+        // when
+        long count = popService.countBatch(claimsExpiringIn(90), entries);
+
+        // then
+        assertThat(count).isEqualTo(800 + 300);
+    }
+
+    @Test
+    @DisplayName("너무 오래된 항목은 버리고, 미래 시각은 현재 구간으로 센다")
+    void countBatch_DropsStaleAndClampsFutureEntries() {
+        // given
+        long now = System.currentTimeMillis();
+        List<PopBatchRequest.Entry> entries = List.of(
+                new PopBatchRequest.Entry(now - 3_600_000, 800L),
+                new PopBatchRequest.Entry(now + 3_600_000, 600L),
+                new PopBatchRequest.Entry(now, 600L)
+        );
+
+        // when
+        long count = popService.countBatch(claimsExpiringIn(90), entries);
+
+        // then
+        assertThat(count).isEqualTo(800);
+    }
+
+    @Test
+    @DisplayName("같은 배치를 다시 보내면 이미 인정한 구간은 세지 않고, 하나도 인정하지 못하면 알린다")
+    void countBatch_ResentBatchIsNotCreditedTwice() {
+        // given
+        TokenClaims claims = claimsExpiringIn(90);
+        long now = System.currentTimeMillis();
+        List<PopBatchRequest.Entry> entries = List.of(
+                new PopBatchRequest.Entry(now - 60_000, 500L),
+                new PopBatchRequest.Entry(now - 120_000, 500L)
+        );
+        long first = popService.countBatch(claims, entries);
+
+        // when & then
+        assertThat(first).isEqualTo(1_000);
+        assertThatThrownBy(() -> popService.countBatch(claims, entries))
+                .isInstanceOf(PopException.PopsNotCreditedException.class);
+    }
+
+    @Test
+    @DisplayName("장부가 가득 차면 오래된 구간을 밀어내지 않고 새 구간을 거절한다")
+    void countBatch_FullLedgerRejectsInsteadOfEvicting() {
+        // given
+        popService = new PopServiceImpl(popCounterStore, regionCounterRegistry, jwtProvider, new PopMapper(),
+                popIngestPipeline, new PopWindowLedger(30_000, 600_000, 800, 1));
+        ReflectionTestUtils.setField(popService, "maxPopsAppendPerVisitor", 800L);
+        TokenClaims claims = claimsExpiringIn(90);
+        long now = System.currentTimeMillis();
+        List<PopBatchRequest.Entry> entries = List.of(new PopBatchRequest.Entry(now, 800L));
+        popService.countBatch(claims, entries);
+
+        // when & then
+        assertThatThrownBy(() -> popService.countBatch(claims, List.of(new PopBatchRequest.Entry(now - 60_000, 500L))))
+                .isInstanceOf(PopException.RateLimitExceededException.class);
+        assertThatThrownBy(() -> popService.countBatch(claims, entries))
+                .isInstanceOf(PopException.PopsNotCreditedException.class);
+    }
+
+    @Test
+    @DisplayName("단건 요청은 기본으로 배치의 구간 상한과 따로 센다")
+    void addPops_IgnoresBatchWindowByDefault() {
+        // given
+        TokenClaims claims = claimsExpiringIn(90);
+        popService.countBatch(claims, List.of(new PopBatchRequest.Entry(System.currentTimeMillis(), 700L)));
+
+        // when
+        PopResponse response = popService.addPops(claims, 300);
+
+        // then
+        assertThat(response.countAppend()).isEqualTo(300);
+        verify(popCounterStore).addPop(IP_ADDRESS, REGION_CODE, 300);
+    }
+
+    @Test
+    @DisplayName("apply-to-single 을 켜면 단건 요청도 배치와 같은 구간 상한을 나눠 쓴다")
+    void addPops_SharesWindowWithBatchWhenEnabled() {
+        // given
+        ReflectionTestUtils.setField(popService, "windowAppliesToSingle", true);
+        TokenClaims claims = claimsExpiringIn(90);
+        popService.countBatch(claims, List.of(new PopBatchRequest.Entry(System.currentTimeMillis(), 700L)));
+
+        // when
+        PopResponse response = popService.addPops(claims, 300);
+
+        // then
+        assertThat(response.countAppend()).isEqualTo(100);
+        verify(popCounterStore).addPop(IP_ADDRESS, REGION_CODE, 100);
+        assertThatThrownBy(() -> popService.addPops(claims, 300))
+                .isInstanceOf(PopException.PopsNotCreditedException.class);
+    }
+
+    @Test
+    @DisplayName("검증한 배치 개수는 요청당 상한 없이 한 번에 반영한다")
+    void addPopBatch_AppliesAggregatedCount() {
+        // given
+        TokenClaims claims = claimsExpiringIn(90);
+
+        // when
+        PopResponse response = popService.addPopBatch(claims, 2_400);
+
+        // then
+        assertThat(response.countAppend()).isEqualTo(2_400);
+        verify(popCounterStore).addPop(IP_ADDRESS, REGION_CODE, 2_400);
+    }
+
+    @Test
+    @DisplayName("beacon 팝은 파이프라인 반영을 기다리지 않고, 갱신한 토큰만 반환한다")
+    void addBeaconPops_DoesNotWaitForAck() {
+        // given
+        ReflectionTestUtils.setField(popService, "ingestAck", true);
+        TokenClaims claims = claimsExpiringIn(10);
+        given(popIngestPipeline.isEnabled()).willReturn(true);
+        given(jwtProvider.generateToken(IpAddress.parse(IP_ADDRESS), REGION_CODE)).willReturn("renewed.token");
+
+        // when
+        String newToken = popService.addBeaconPops(claims, 1000);
+
+        // then
+        assertThat(newToken).isEqualTo("renewed.token");
+        verify(popIngestPipeline).addPop(IP_ADDRESS, REGION_CODE, 800, false);
+        verifyNoInteractions(popCounterStore);
+    }
+
+    private static TokenClaims claimsExpiringIn(long seconds) {
+        long expiresAt = Instant.now().getEpochSecond() + seconds;
+        return TokenClaims.builder()
+                .id("id")
+                .issuer("issuer")
+                .ipAddress(IP_ADDRESS)
+                .address(IpAddress.parse(IP_ADDRESS))
+                .regionCode(REGION_CODE)
+                .issuedAt(expiresAt - LIFETIME_SECONDS)
+                .notBefore(expiresAt - LIFETIME_SECONDS - 600)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
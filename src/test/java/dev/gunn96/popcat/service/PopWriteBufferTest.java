@@ -0,0 +1,77 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PopWriteBufferTest {
+
+    private PopWriteBuffer popWriteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        popWriteBuffer = new PopWriteBuffer();
+        ReflectionTestUtils.setField(popWriteBuffer, "enabled", true);
+        ReflectionTestUtils.setField(popWriteBuffer, "maxBufferSize", 2);
+    }
+
+    @Test
+    @DisplayName("같은 방문자와 지역의 델타는 하나로 병합된다")
+    void shouldCoalesceDeltasBySameKey() {
+        // given
+        popWriteBuffer.add("1.1.1.1", "KR", 10);
+        popWriteBuffer.add("1.1.1.1", "KR", 5);
+        popWriteBuffer.add("2.2.2.2", "KR", 3);
+
+        // when
+        Map<VisitorPopEntity.VisitorPopId, Long> visitorDeltas = popWriteBuffer.drainVisitorDeltas();
+        Map<String, Long> regionDeltas = popWriteBuffer.drainRegionDeltas();
+
+        // then
+        assertThat(visitorDeltas).containsEntry(new VisitorPopEntity.VisitorPopId("1.1.1.1", "KR"), 15L);
+        assertThat(visitorDeltas).containsEntry(new VisitorPopEntity.VisitorPopId("2.2.2.2", "KR"), 3L);
+        assertThat(regionDeltas).containsEntry("KR", 18L);
+        assertThat(popWriteBuffer.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("버퍼가 가득 차면 새로운 키는 거부하고 기존 키는 계속 병합한다")
+    void shouldRejectNewKeyWhenFull() {
+        // given
+        popWriteBuffer.add("1.1.1.1", "KR", 1);
+        popWriteBuffer.add("2.2.2.2", "US", 1);
+
+        // when
+        boolean newKeyAccepted = popWriteBuffer.add("3.3.3.3", "JP", 1);
+        boolean existingKeyAccepted = popWriteBuffer.add("1.1.1.1", "KR", 1);
+
+        // then
+        assertThat(newKeyAccepted).isFalse();
+        assertThat(existingKeyAccepted).isTrue();
+        assertThat(popWriteBuffer.drainRegionDeltas()).doesNotContainKey("JP");
+    }
+
+    @Test
+    @DisplayName("플러시에 실패한 델타는 버퍼로 복원된다")
+    void shouldRestoreFailedDeltas() {
+        // given
+        popWriteBuffer.add("1.1.1.1", "KR", 7);
+        Map<VisitorPopEntity.VisitorPopId, Long> visitorDeltas = popWriteBuffer.drainVisitorDeltas();
+        Map<String, Long> regionDeltas = popWriteBuffer.drainRegionDeltas();
+        popWriteBuffer.add("1.1.1.1", "KR", 3);
+
+        // when
+        popWriteBuffer.restore(visitorDeltas, regionDeltas);
+
+        // then
+        assertThat(popWriteBuffer.drainVisitorDeltas())
+                .containsEntry(new VisitorPopEntity.VisitorPopId("1.1.1.1", "KR"), 10L);
+        assertThat(popWriteBuffer.drainRegionDeltas()).containsEntry("KR", 10L);
+    }
+}
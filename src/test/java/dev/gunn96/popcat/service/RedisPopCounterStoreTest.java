@@ -0,0 +1,213 @@
+package dev.gunn96.popcat.service;
+
+import dev.gunn96.popcat.entity.RegionPopEntity;
+import dev.gunn96.popcat.entity.VisitorPopEntity;
+import dev.gunn96.popcat.repository.RegionPopRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@Testcontainers
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Redis 팝 카운터 저장소 테스트")
+class RedisPopCounterStoreTest {
+    private static final String KEY_PREFIX = "popcat:{pops}:";
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RegionPopRepository regionPopRepository;
+
+    @Mock
+    private PopCountWriter popCountWriter;
+
+    private RedisPopCounterStore store;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        store = newStore();
+    }
+
+    @Test
+    @DisplayName("팝 하나로 방문자, 지역, 전체 카운트와 dirty set 을 함께 갱신한다")
+    void addPop_UpdatesAllCountersInOneCall() {
+        // when
+        store.addPop("192.168.0.1", "KR", 3);
+        store.addPop("192.168.0.1", "KR", 2);
+        store.addPop("2001:db8::1", "US", 4);
+
+        // then
+        assertThat(redisTemplate.opsForHash().get(KEY_PREFIX + "visitors", "192.168.0.1|KR")).isEqualTo("5");
+        assertThat(redisTemplate.opsForHash().get(KEY_PREFIX + "visitors", "2001:db8::1|US")).isEqualTo("4");
+        assertThat(store.findRegionCounts()).containsExactlyInAnyOrderEntriesOf(Map.of("KR", 5L, "US", 4L));
+        assertThat(redisTemplate.opsForValue().get(KEY_PREFIX + "global")).isEqualTo("9");
+        assertThat(redisTemplate.opsForSet().members(KEY_PREFIX + "dirty:visitors"))
+                .containsExactlyInAnyOrder("192.168.0.1|KR", "2001:db8::1|US");
+        assertThat(redisTemplate.opsForSet().members(KEY_PREFIX + "dirty:regions"))
+                .containsExactlyInAnyOrder("KR", "US");
+    }
+
+    @Test
+    @DisplayName("처음 팝한 방문자도 Postgres 를 조회하지 않고 스크립트 한 번으로 반영한다")
+    void addPop_DoesNotReadDatabaseForNewVisitor() {
+        // when
+        store.addPop("192.168.0.1", "KR", 1);
+
+        // then
+        assertThat(redisTemplate.opsForHash().get(KEY_PREFIX + "visitors", "192.168.0.1|KR")).isEqualTo("1");
+        verifyNoInteractions(regionPopRepository);
+    }
+
+    @Test
+    @DisplayName("체크포인트는 dirty set 과 방문자 델타를 비우고, 방문자 델타와 지역 누적값을 기록한다")
+    void checkpoint_DrainsDirtySets() {
+        // given
+        store.addPop("192.168.0.1", "KR", 3);
+        store.addPop("192.168.0.2", "KR", 2);
+        RedisPopCheckpointer checkpointer = newCheckpointer();
+
+        // when
+        checkpointer.checkpoint();
+        store.addPop("192.168.0.1", "KR", 4);
+        checkpointer.checkpoint();
+
+        // then
+        verify(popCountWriter).saveRegionCounts(Map.of("KR", 5L));
+        verify(popCountWriter).saveRegionCounts(Map.of("KR", 9L));
+        verify(popCountWriter).addVisitorPops(Map.of(
+                new VisitorPopEntity.VisitorPopId("192.168.0.1", "KR"), 3L,
+                new VisitorPopEntity.VisitorPopId("192.168.0.2", "KR"), 2L));
+        verify(popCountWriter).addVisitorPops(Map.of(
+                new VisitorPopEntity.VisitorPopId("192.168.0.1", "KR"), 4L));
+        assertThat(redisTemplate.opsForHash().size(KEY_PREFIX + "visitors")).isZero();
+        assertThat(redisTemplate.opsForSet().size(KEY_PREFIX + "dirty:visitors")).isZero();
+        assertThat(redisTemplate.opsForSet().size(KEY_PREFIX + "dirty:regions")).isZero();
+    }
+
+    @Test
+    @DisplayName("체크포인트에 실패한 항목은 델타를 되돌리고 dirty set 에 다시 넣는다")
+    void checkpoint_RestoresDirtyOnFailure() {
+        // given
+        store.addPop("192.168.0.1", "KR", 3);
+        willThrow(new IllegalStateException("db down")).given(popCountWriter).addVisitorPops(anyMap());
+        willThrow(new IllegalStateException("db down")).given(popCountWriter).saveRegionCounts(anyMap());
+
+        // when
+        newCheckpointer().checkpoint();
+
+        // then
+        assertThat(redisTemplate.opsForHash().get(KEY_PREFIX + "visitors", "192.168.0.1|KR")).isEqualTo("3");
+        assertThat(redisTemplate.opsForSet().members(KEY_PREFIX + "dirty:visitors"))
+                .containsExactly("192.168.0.1|KR");
+        assertThat(redisTemplate.opsForSet().members(KEY_PREFIX + "dirty:regions")).containsExactly("KR");
+    }
+
+    @Test
+    @DisplayName("Redis 가 비어 있으면 Postgres 의 지역 누적값으로 초기화한다")
+    void seedRegionCounts_FromDatabase() {
+        // given
+        given(regionPopRepository.findAll()).willReturn(regionPops());
+
+        // when
+        store.seedRegionCounts();
+        store.seedRegionCounts();
+
+        // then
+        assertThat(store.findRegionCounts()).containsExactlyInAnyOrderEntriesOf(Map.of("KR", 100L, "US", 50L));
+        assertThat(redisTemplate.opsForValue().get(KEY_PREFIX + "global")).isEqualTo("150");
+    }
+
+    @Test
+    @DisplayName("두 인스턴스가 동시에 초기화해도 누적값은 한 번만 더한다")
+    void seedRegionCounts_ConcurrentInstances() throws Exception {
+        // given
+        given(regionPopRepository.findAll()).willReturn(regionPops());
+        RedisPopCounterStore other = newStore();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> first = executor.submit(() -> {
+                start.await();
+                store.seedRegionCounts();
+                return null;
+            });
+            Future<?> second = executor.submit(() -> {
+                start.await();
+                other.seedRegionCounts();
+                return null;
+            });
+            start.countDown();
+            first.get();
+            second.get();
+        }
+
+        // then
+        assertThat(store.findRegionCounts()).containsExactlyInAnyOrderEntriesOf(Map.of("KR", 100L, "US", 50L));
+        assertThat(redisTemplate.opsForValue().get(KEY_PREFIX + "global")).isEqualTo("150");
+    }
+
+    private RedisPopCounterStore newStore() {
+        return new RedisPopCounterStore(redisTemplate, regionPopRepository, KEY_PREFIX);
+    }
+
+    private RedisPopCheckpointer newCheckpointer() {
+        RedisPopCheckpointer checkpointer = new RedisPopCheckpointer(store, popCountWriter);
+        ReflectionTestUtils.setField(checkpointer, "batchSize", 100);
+        return checkpointer;
+    }
+
+    private static List<RegionPopEntity> regionPops() {
+        return List.of(
+                RegionPopEntity.builder().regionCode("KR").count(100).build(),
+                RegionPopEntity.builder().regionCode("US").count(50).build()
+        );
+    }
+}
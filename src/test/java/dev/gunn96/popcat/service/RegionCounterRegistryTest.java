@@ -0,0 +1,77 @@
+package dev.gunn96.popcat.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RegionCounterRegistryTest {
+
+    private RegionCounterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RegionCounterRegistry(mock(PopCounterStore.class), true, 4);
+    }
+
+    @Test
+    @DisplayName("지역별 카운트와 전체 합계를 집계한다")
+    void shouldSumByRegionAndGlobally() {
+        // given
+        registry.add("KR", 10);
+        registry.add("KR", 5);
+        registry.add("US", 3);
+        registry.add("UNKNOWN", 2);
+
+        // when & then
+        assertThat(registry.sum("KR")).isEqualTo(15);
+        assertThat(registry.sum("US")).isEqualTo(3);
+        assertThat(registry.sum("JP")).isZero();
+        assertThat(registry.globalSum()).isEqualTo(20);
+        assertThat(registry.snapshot()).containsOnlyKeys("KR", "US", "UNKNOWN");
+    }
+
+    @Test
+    @DisplayName("인덱스 테이블에 없는 지역 코드도 집계한다")
+    void shouldCountRegionsOutsideOfIndex() {
+        // given
+        registry.add("EU", 7);
+
+        // when & then
+        assertThat(registry.sum("EU")).isEqualTo(7);
+        assertThat(registry.globalSum()).isEqualTo(7);
+        assertThat(registry.snapshot()).containsEntry("EU", 7L);
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 증가시켜도 유실이 없다")
+    void shouldNotLoseConcurrentUpdates() throws InterruptedException {
+        // given
+        int threads = 8;
+        int iterations = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        // when
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    registry.add("KR", 1);
+                }
+                latch.countDown();
+            });
+        }
+        latch.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        assertThat(registry.sum("KR")).isEqualTo((long) threads * iterations);
+    }
+}
@@ -0,0 +1,78 @@
+package dev.gunn96.popcat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAddressTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "8.8.8.8, 8.8.8.8",
+            "010.001.000.255, 10.1.0.255",
+            "2001:db8::1, 2001:db8::1",
+            "2001:DB8:0:0:0:0:0:1, 2001:db8::1",
+            "::, ::",
+            "::1, ::1",
+            "1::, 1::",
+            "1:0:0:1:0:0:0:1, 1:0:0:1::1",
+            "2001:db8:0:1:1:1:1:1, 2001:db8:0:1:1:1:1:1",
+            "::ffff:203.0.113.9, 203.0.113.9",
+            "::ffff:cb00:7109, 203.0.113.9",
+            "64:ff9b::192.0.2.33, 64:ff9b::c000:221",
+            "[2001:db8::1], 2001:db8::1"
+    })
+    @DisplayName("IPv4/IPv6 주소를 파싱해 정규화된 문자열로 만든다")
+    void shouldParseAndCanonicalize(String input, String expected) {
+        // when
+        IpAddress address = IpAddress.parse(input);
+
+        // then
+        assertThat(address).isNotNull();
+        assertThat(address.toString()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", "unknown", "invalid.ip.address", "256.1.1.1", "1.2.3", "1.2.3.4.5", "1..2.3", "1.2.3.4 5",
+            ":1", "1:", "1:::2", "1::2::3", "12345::", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7",
+            "1.2.3.4::", "fe80::1%eth0", "g::1", "localhost"
+    })
+    @DisplayName("잘못된 형식이면 null 을 반환한다")
+    void shouldRejectInvalidAddress(String input) {
+        // when & then
+        assertThat(IpAddress.parse(input)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1.2.3.4", "2001:db8:85a3::8a2e:370:7334", "::ffff:1.2.3.4", "fe80::", "::7f00:1"})
+    @DisplayName("파싱한 바이트는 InetAddress 와 같다")
+    void shouldMatchInetAddressBytes(String input) throws Exception {
+        // when
+        IpAddress address = IpAddress.parse(input);
+
+        // then
+        assertThat(address.toBytes()).isEqualTo(InetAddress.getByName(input).getAddress());
+    }
+
+    @Test
+    @DisplayName("문자열의 일부 구간만 파싱한다")
+    void shouldParseRange() {
+        // given
+        String header = " 203.0.113.9 , 10.0.0.1";
+
+        // when
+        IpAddress address = IpAddress.parse(header, 0, header.indexOf(','));
+
+        // then
+        assertThat(address.isIpv4()).isTrue();
+        assertThat(address.ipv4Value()).isEqualTo(0xCB007109);
+        assertThat(address).isEqualTo(IpAddress.parse("::ffff:203.0.113.9"));
+    }
+}
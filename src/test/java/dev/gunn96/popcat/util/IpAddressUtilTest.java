@@ -4,6 +4,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class IpAddressUtilTest {
@@ -94,4 +96,54 @@ class IpAddressUtilTest {
         // then
         assertThat(extractedIp).isEqualTo(originalIp);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("축약된 IPv6 주소를 정규화해 추출한다")
+    void shouldExtractCompressedIpv6() {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Forwarded-For", "2001:DB8::1, 10.0.0.1");
+        request.setRemoteAddr("10.0.0.1");
+
+        // when
+        String extractedIp = IpAddressUtil.extractIpAddress(request);
+
+        // then
+        assertThat(extractedIp).isEqualTo("2001:db8::1");
+    }
+
+    @Test
+    @DisplayName("신뢰하는 프록시가 설정되면 오른쪽부터 신뢰하지 않는 첫 번째 IP를 추출한다")
+    void shouldStopAtFirstUntrustedHop() {
+        // given
+        TrustedProxies trustedProxies = TrustedProxies.of(List.of("10.0.0.0/8"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        String spoofedIp = "1.2.3.4";          // 클라이언트가 임의로 넣은 IP
+        String originalIp = "203.104.153.1";  // 첫 번째 프록시가 본 실제 IP
+        request.addHeader("X-Forwarded-For", String.join(", ", spoofedIp, originalIp, "10.0.0.1"));
+        request.setRemoteAddr("10.0.0.2");
+
+        // when
+        String extractedIp = IpAddressUtil.extractIpAddress(request, trustedProxies);
+
+        // then
+        assertThat(extractedIp).isEqualTo(originalIp);
+    }
+
+    @Test
+    @DisplayName("신뢰하지 않는 곳에서 직접 연결하면 프록시 헤더를 무시한다")
+    void shouldIgnoreHeadersFromUntrustedPeer() {
+        // given
+        TrustedProxies trustedProxies = TrustedProxies.of(List.of("10.0.0.0/8"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        String directIp = "223.130.195.95";
+        request.addHeader("X-Forwarded-For", "1.2.3.4");
+        request.setRemoteAddr(directIp);
+
+        // when
+        String extractedIp = IpAddressUtil.extractIpAddress(request, trustedProxies);
+
+        // then
+        assertThat(extractedIp).isEqualTo(directIp);
+    }
+}
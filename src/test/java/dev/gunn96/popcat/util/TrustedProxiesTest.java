@@ -0,0 +1,49 @@
+package dev.gunn96.popcat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrustedProxiesTest {
+
+    @Test
+    @DisplayName("CIDR 대역에 포함된 주소만 신뢰한다")
+    void shouldMatchCidrRanges() {
+        // given
+        TrustedProxies trustedProxies = TrustedProxies.of(List.of("10.0.0.0/8", "192.168.1.7", "2001:db8::/32"));
+
+        // when & then
+        assertThat(trustedProxies.contains(IpAddress.parse("10.255.0.1"))).isTrue();
+        assertThat(trustedProxies.contains(IpAddress.parse("11.0.0.1"))).isFalse();
+        assertThat(trustedProxies.contains(IpAddress.parse("192.168.1.7"))).isTrue();
+        assertThat(trustedProxies.contains(IpAddress.parse("192.168.1.8"))).isFalse();
+        assertThat(trustedProxies.contains(IpAddress.parse("2001:db8:ffff::1"))).isTrue();
+        assertThat(trustedProxies.contains(IpAddress.parse("2001:db9::1"))).isFalse();
+        assertThat(trustedProxies.contains(IpAddress.parse("::ffff:10.1.2.3"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("목록이 비어 있으면 아무 주소도 신뢰하지 않는다")
+    void shouldTrustNothingWhenEmpty() {
+        // given
+        TrustedProxies trustedProxies = TrustedProxies.of(List.of(""));
+
+        // when & then
+        assertThat(trustedProxies.isEmpty()).isTrue();
+        assertThat(trustedProxies.contains(IpAddress.parse("10.0.0.1"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("잘못된 CIDR 은 거부한다")
+    void shouldRejectInvalidCidr() {
+        // when & then
+        assertThatThrownBy(() -> TrustedProxies.of(List.of("10.0.0.0/33")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TrustedProxies.of(List.of("proxy.local/8")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}